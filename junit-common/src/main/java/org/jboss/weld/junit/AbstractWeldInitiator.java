@@ -20,19 +20,28 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.annotation.Resource;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.Dependent;
 import javax.enterprise.context.NormalScope;
+import javax.enterprise.context.RequestScoped;
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.event.Event;
 import javax.enterprise.inject.Instance;
@@ -40,7 +49,6 @@ import javax.enterprise.inject.spi.AfterBeanDiscovery;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.InjectionPoint;
-import javax.enterprise.inject.spi.InjectionTarget;
 import javax.enterprise.util.TypeLiteral;
 
 import org.jboss.weld.config.ConfigurationKey;
@@ -88,9 +96,23 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
 
     protected volatile WeldContainer container;
 
+    // Injection plans are only valid for the container they were created for
+    private final Map<Class<?>, InjectionPlan> injectionPlans = new ConcurrentHashMap<>();
+
+    // Event instances are cached per container so that Weld is able to reuse the resolved observer methods
+    private final Map<EventKey, Event<?>> events = new ConcurrentHashMap<>();
+
     protected AbstractWeldInitiator(Weld weld, List<Object> instancesToInject, Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans,
             Map<String, Object> resources, Function<InjectionPoint, Object> ejbFactory, Function<InjectionPoint, Object> persistenceUnitFactory,
             Function<InjectionPoint, Object> persistenceContextFactory) {
+        this(weld, instancesToInject, scopesToActivate, beans, resources, ejbFactory, persistenceUnitFactory, persistenceContextFactory,
+                Collections.emptyMap(), 0, DestructionPolicy.sequential(), false);
+    }
+
+    protected AbstractWeldInitiator(Weld weld, List<Object> instancesToInject, Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans,
+            Map<String, Object> resources, Function<InjectionPoint, Object> ejbFactory, Function<InjectionPoint, Object> persistenceUnitFactory,
+            Function<InjectionPoint, Object> persistenceContextFactory, Map<Class<? extends Annotation>, ContextMode> contextModes,
+            int propagatingExecutorThreads, DestructionPolicy destructionPolicy, boolean skipUnobservedLifecycleEvents) {
         this.instancesToInject = new ArrayList<>();
         for (Object instance : instancesToInject) {
             this.instancesToInject.add(createToInject(instance));
@@ -100,8 +122,10 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
         this.weld = weld;
         boolean hasMockInterceptor = false;
         boolean dummyBeanAdded = false;
-        if (hasScopesToActivate() || hasBeansToAdd()) {
-            this.extension = new WeldCDIExtension(this.scopesToActivate, this.beans);
+        if (hasScopesToActivate() || hasBeansToAdd() || propagatingExecutorThreads > 0) {
+            this.extension = new WeldCDIExtension(this.scopesToActivate,
+                    contextModes.isEmpty() ? Collections.emptyMap() : new HashMap<>(contextModes), this.beans, propagatingExecutorThreads,
+                    destructionPolicy, skipUnobservedLifecycleEvents);
             for (Bean<?> bean : this.beans) {
                 if (bean instanceof MockBean) {
                     MockBean<?> mockBean = (MockBean<?>) bean;
@@ -136,6 +160,17 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
         return new ToInject(instanceToInject);
     }
 
+    /**
+     * The instances of the group are injected one after another and share a single creational context, i.e. all the dependent objects are released at
+     * once.
+     *
+     * @param group the instances to inject, e.g. the test instance and its enclosing instances
+     * @return the group to inject
+     */
+    protected ToInject createToInject(List<Object> group) {
+        return new ToInject(group);
+    }
+
     /**
      * Injects the given non-contextual instance immediately. The returned {@link AutoCloseable} should be used
      * to release the creational context once the injected beans are no longer needed.
@@ -221,6 +256,248 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
         }
     }
 
+    /**
+     * Returns an {@link Event} for the given type and qualifiers. Unlike {@code event().select(type, qualifiers)}, the event object is only created once per
+     * container and therefore the observer resolution performed by the container is reused for subsequent invocations.
+     *
+     * <p>
+     * Example:
+     * <pre>{@code
+     * Event<Foo> fooEvent = weld.eventFor(Foo.class);
+     * for (int i = 0; i < 1000; i++) {
+     *     fooEvent.fire(new Foo(i));
+     * }
+     * }</pre>
+     *
+     * @param type
+     * @param qualifiers
+     * @return a cached event object
+     * @since 2.0.2
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Event<T> eventFor(Class<T> type, Annotation... qualifiers) {
+        checkContainer();
+        EventKey key = new EventKey(type, qualifiers);
+        Event<?> event = events.get(key);
+        if (event == null) {
+            event = event().select(type, qualifiers);
+            Event<?> previous = events.putIfAbsent(new EventKey(type, qualifiers.clone()), event);
+            if (previous != null) {
+                event = previous;
+            }
+        }
+        return (Event<T>) event;
+    }
+
+    /**
+     * Fires all the given event payloads synchronously, in iteration order. The event objects obtained through {@link #eventFor(Class, Annotation...)} are
+     * used, i.e. the observer resolution is only performed once per runtime type of the payload.
+     *
+     * @param payloads
+     * @param qualifiers
+     * @throws IllegalArgumentException if any of the payloads is {@code null}
+     * @since 2.0.2
+     */
+    @SuppressWarnings("unchecked")
+    public void fireAll(Collection<?> payloads, Annotation... qualifiers) {
+        checkContainer();
+        int index = 0;
+        for (Object payload : payloads) {
+            if (payload == null) {
+                // Validate all the payloads before any event is fired
+                throw new IllegalArgumentException("Event payload must not be null: " + index);
+            }
+            index++;
+        }
+        Class<?> lastType = null;
+        Event<Object> lastEvent = null;
+        for (Object payload : payloads) {
+            // Consecutive payloads are very likely of the same type - avoid the cache lookup
+            if (payload.getClass() != lastType) {
+                lastType = payload.getClass();
+                lastEvent = (Event<Object>) eventFor(lastType, qualifiers);
+            }
+            lastEvent.fire(payload);
+        }
+    }
+
+    /**
+     * Wraps the given task so that the contexts activated by the initiator and bound to the current thread are also active on the thread executing the
+     * task. The state of the contexts is captured when this method is invoked.
+     *
+     * @param task
+     * @return the wrapped task
+     * @see ContextMode
+     * @since 2.0.2
+     */
+    public Runnable propagating(Runnable task) {
+        return captureContexts().wrap(task);
+    }
+
+    /**
+     * Wraps the given task so that the contexts activated by the initiator and bound to the current thread are also active on the thread executing the
+     * task. The state of the contexts is captured when this method is invoked.
+     *
+     * @param task
+     * @return the wrapped task
+     * @see ContextMode
+     * @since 2.0.2
+     */
+    public <V> Callable<V> propagating(Callable<V> task) {
+        return captureContexts().wrap(task);
+    }
+
+    /**
+     * Wraps the given executor so that the contexts activated by the initiator are propagated to the threads executing the submitted tasks. The state of
+     * the contexts is captured when a task is submitted. This also works for {@link java.util.concurrent.CompletableFuture}:
+     *
+     * <pre>{@code
+     * CompletableFuture.supplyAsync(() -> foo.getId(), weld.propagating(executor));
+     * }</pre>
+     *
+     * <p>
+     * The lifecycle methods of the returned executor delegate to the given executor if it is an {@link ExecutorService} and throw
+     * {@link UnsupportedOperationException} otherwise.
+     * </p>
+     *
+     * @param executor
+     * @return the wrapped executor
+     * @since 2.0.2
+     */
+    public ExecutorService propagating(Executor executor) {
+        return new ContextPropagatingExecutorService(executor, this::captureContexts);
+    }
+
+    /**
+     * Opens a new independent state of the contexts activated with {@link ContextMode#TOKEN}. The returned token should be closed once the state is no longer
+     * needed.
+     *
+     * @param scopes the scopes the token is opened for, all the contexts activated with {@link ContextMode#TOKEN} if no scope is specified
+     * @return a new context token
+     * @throws IllegalStateException if the context for a given scope was not activated with {@link ContextMode#TOKEN}
+     * @see ContextToken
+     * @since 2.0.2
+     */
+    @SafeVarargs
+    public final ContextToken openContextToken(Class<? extends Annotation>... scopes) {
+        checkContainer();
+        if (extension == null) {
+            throw new IllegalStateException("No context was activated with ContextMode.TOKEN");
+        }
+        return extension.openToken(scopes);
+    }
+
+    /**
+     * Opens the given number of independent states of the contexts activated with {@link ContextMode#TOKEN}. This makes it possible to simulate concurrent
+     * users, e.g.:
+     *
+     * <pre>{@code
+     * try (ContextTokenGroup sessions = weld.openContextTokens(1000, SessionScoped.class)) {
+     *     for (ContextToken session : sessions) {
+     *         session.run(() -> cart.add(item));
+     *     }
+     * }
+     * }</pre>
+     *
+     * @param count
+     * @param scopes the scopes the tokens are opened for, all the contexts activated with {@link ContextMode#TOKEN} if no scope is specified
+     * @return a group of new context tokens
+     * @throws IllegalStateException if the context for a given scope was not activated with {@link ContextMode#TOKEN}
+     * @see ContextTokenGroup
+     * @since 2.0.2
+     */
+    @SafeVarargs
+    public final ContextTokenGroup openContextTokens(int count, Class<? extends Annotation>... scopes) {
+        checkContainer();
+        if (extension == null) {
+            throw new IllegalStateException("No context was activated with ContextMode.TOKEN");
+        }
+        return extension.openTokens(count, scopes);
+    }
+
+    /**
+     * Runs the given number of request cycles on the current thread, i.e. for each cycle the context for {@link RequestScoped} is activated, the task is
+     * executed and then the context is deactivated.
+     *
+     * @param cycles
+     * @param task
+     * @return the report
+     * @see #runCycles(Class, int, Runnable)
+     * @since 2.0.2
+     */
+    public CycleReport runRequestCycles(int cycles, Runnable task) {
+        return runCycles(RequestScoped.class, cycles, task);
+    }
+
+    /**
+     * Runs the given number of context lifecycles on the current thread, i.e. for each cycle the context for the given scope is activated, the task is
+     * executed and then the context is deactivated and all the contextual instances are destroyed. This method is intended for load-style tests, e.g.:
+     *
+     * <pre>{@code
+     * CycleReport report = weld.runCycles(RequestScoped.class, 100_000, () -> weld.select(Foo.class).get().ping());
+     * }</pre>
+     *
+     * <p>
+     * The context must be activated by the initiator with {@link ContextMode#THREAD_LOCAL} or {@link ContextMode#INDEXED}. The map of contextual instances is reused for all the cycles
+     * and the {@link javax.enterprise.context.Initialized} and {@link javax.enterprise.context.Destroyed} events are only fired if there is an observer
+     * method to notify. The state of the context bound to the current thread before this method was invoked is restored afterwards.
+     * </p>
+     *
+     * @param scope
+     * @param cycles
+     * @param task
+     * @return the report
+     * @throws IllegalStateException if the context for the given scope was not activated by the initiator
+     * @since 2.0.2
+     */
+    public CycleReport runCycles(Class<? extends Annotation> scope, int cycles, Runnable task) {
+        checkContainer();
+        ContextImpl context = extension != null ? extension.getContext(scope) : null;
+        if (context == null) {
+            throw new IllegalStateException("The context for " + scope.getName() + " was not activated by the initiator");
+        }
+        long start = System.nanoTime();
+        context.runCycles(cycles, task);
+        return new CycleReport(scope, cycles, System.nanoTime() - start);
+    }
+
+    /**
+     * The report lists the slow destructions of contextual instances since the container was started. Slow destructions are only reported if a threshold
+     * is set, see {@link DestructionPolicy#reportSlowerThan(java.time.Duration)}, or if a parallel destruction times out. Note that the report is still
+     * available after the container is shut down.
+     *
+     * @return the report of slow destructions
+     * @see AbstractBuilder#setDestructionPolicy(DestructionPolicy)
+     * @since 2.0.2
+     */
+    public DestructionReport getDestructionReport() {
+        return extension != null ? extension.getDestructionReport() : DestructionReport.EMPTY;
+    }
+
+    /**
+     * The mock beans built with {@link MockBean.Builder#creatingLazily(java.util.function.Supplier)} whose instance was never created, i.e. the mocks
+     * which were declared but never used. Only the container started by this initiator is considered, i.e. a mock bean shared by several initiators is
+     * reported unless it was used in this container. Note that the report is still available after the container is shut down.
+     *
+     * @return the set of lazy mock beans which were never materialized
+     * @since 2.0.2
+     */
+    public Set<Bean<?>> getUnmaterializedMockBeans() {
+        Set<Bean<?>> unmaterialized = new HashSet<>();
+        // The id is available even if the container is not running anymore
+        String containerId = container != null ? container.getId() : null;
+        for (Bean<?> bean : beans) {
+            if (bean instanceof MockBean && ((MockBean<?>) bean).isUnmaterialized(containerId)) {
+                unmaterialized.add(bean);
+            }
+        }
+        return unmaterialized;
+    }
+
+    private ContextSnapshot captureContexts() {
+        return extension != null ? extension.captureContexts() : ContextSnapshot.EMPTY;
+    }
+
     @Override
     public BeanManager getBeanManager() {
         checkContainer();
@@ -290,32 +567,47 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
 
     protected class ToInject {
 
-        private final Object instance;
+        private final List<Object> instances;
 
         private volatile CreationalContext<?> creationalContext;
 
         ToInject(Object instance) {
-            this.instance = instance;
+            this(Collections.singletonList(instance));
+        }
+
+        ToInject(List<Object> instances) {
+            this.instances = instances;
         }
 
         void inject() {
             BeanManager beanManager = container.getBeanManager();
             CreationalContext<Object> ctx = beanManager.createCreationalContext(null);
-            @SuppressWarnings("unchecked")
-            InjectionTarget<Object> injectionTarget = (InjectionTarget<Object>) beanManager
-                    .getInjectionTargetFactory(beanManager.createAnnotatedType(instance.getClass())).createInjectionTarget(null);
-            injectionTarget.inject(instance, ctx);
+            // Set first so that the dependent objects are released even if an injection fails
             creationalContext = ctx;
+            for (Object instance : instances) {
+                getInjectionPlan(beanManager, instance.getClass()).inject(instance, ctx);
+            }
         }
 
         void release() {
-            if (creationalContext != null) {
-                creationalContext.release();
+            CreationalContext<?> ctx = creationalContext;
+            if (ctx != null) {
+                creationalContext = null;
+                ctx.release();
             }
         }
 
     }
 
+    private InjectionPlan getInjectionPlan(BeanManager beanManager, Class<?> clazz) {
+        InjectionPlan plan = injectionPlans.get(clazz);
+        if (plan == null) {
+            plan = InjectionPlan.create(beanManager, clazz);
+            injectionPlans.put(clazz, plan);
+        }
+        return plan;
+    }
+
     protected static abstract class AbstractBuilder<I extends AbstractWeldInitiator, T extends AbstractBuilder<I, T>> {
 
         protected final Weld weld;
@@ -334,10 +626,19 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
 
         private Function<InjectionPoint, Object> persistenceContextFactory;
 
+        private final Map<Class<? extends Annotation>, ContextMode> contextModes;
+
+        private int propagatingExecutorThreads;
+
+        private DestructionPolicy destructionPolicy = DestructionPolicy.sequential();
+
+        private boolean skipUnobservedLifecycleEvents;
+
         public AbstractBuilder(Weld weld) {
             this.weld = weld;
             this.instancesToInject = new ArrayList<>();
             this.scopesToActivate = new HashSet<>();
+            this.contextModes = new HashMap<>();
             this.beans = new HashSet<>();
             this.resources = new HashMap<>();
         }
@@ -354,6 +655,29 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
          */
         @SafeVarargs
         public final T activate(Class<? extends Annotation>... normalScopes) {
+            return activate(ContextMode.THREAD_LOCAL, normalScopes);
+        }
+
+        /**
+         * Activate and deactivate contexts for the given normal scopes for the lifetime of the initialized Weld container, by default for each test method
+         * execution. The mode defines on which threads the activated contexts are visible, e.g. {@link ContextMode#SHARED} makes it possible to use a
+         * {@link javax.enterprise.context.RequestScoped} bean from multiple threads:
+         *
+         * <pre>
+         * WeldInitiator.from(Foo.class).activate(ContextMode.SHARED, RequestScoped.class).build();
+         * </pre>
+         *
+         * <p>
+         * {@link ApplicationScoped} is ignored as it is always active.
+         * </p>
+         *
+         * @param mode
+         * @param normalScopes
+         * @return self
+         * @since 2.0.2
+         */
+        @SafeVarargs
+        public final T activate(ContextMode mode, Class<? extends Annotation>... normalScopes) {
             for (Class<? extends Annotation> scope : normalScopes) {
                 if (ApplicationScoped.class.equals(scope)) {
                     continue;
@@ -361,7 +685,15 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
                 if (!scope.isAnnotationPresent(NormalScope.class)) {
                     throw new IllegalArgumentException("Only annotations annotated with @NormalScope are supported!");
                 }
+                if (ContextMode.NATIVE.equals(mode) && !NativeContexts.SUPPORTED_SCOPES.contains(scope)) {
+                    throw new IllegalArgumentException("ContextMode.NATIVE is only supported for built-in scopes: " + scope.getName());
+                }
                 this.scopesToActivate.add(scope);
+                if (ContextMode.THREAD_LOCAL.equals(mode)) {
+                    this.contextModes.remove(scope);
+                } else {
+                    this.contextModes.put(scope, mode);
+                }
             }
             return self();
         }
@@ -378,6 +710,22 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
             return persistenceUnitFactory;
         }
 
+        protected Map<Class<? extends Annotation>, ContextMode> getContextModes() {
+            return contextModes;
+        }
+
+        protected int getPropagatingExecutorThreads() {
+            return propagatingExecutorThreads;
+        }
+
+        protected DestructionPolicy getDestructionPolicy() {
+            return destructionPolicy;
+        }
+
+        protected boolean isSkipUnobservedLifecycleEvents() {
+            return skipUnobservedLifecycleEvents;
+        }
+
         /**
          * Instructs the initiator to inject the given non-contextual instance once the container is started, i.e. during test execution.
          *
@@ -429,6 +777,46 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
             return self();
         }
 
+        /**
+         * Instructs the initiator to add the specified beans during {@link AfterBeanDiscovery} notification.
+         *
+         * @param beans
+         * @return self
+         * @see #addBeans(Bean...)
+         * @since 2.0.2
+         */
+        public T addBeans(Collection<? extends Bean<?>> beans) {
+            this.beans.addAll(beans);
+            return self();
+        }
+
+        /**
+         * Builds the mock beans and instructs the initiator to add them during {@link AfterBeanDiscovery} notification. This method is intended for
+         * deployments with a large number of synthetic beans - the beans with identical sets of bean types, qualifiers and stereotypes share the same
+         * immutable set instances.
+         *
+         * @param builders
+         * @return self
+         * @see MockBean.Builder#build()
+         * @since 2.0.2
+         */
+        public T addMockBeans(Stream<? extends MockBean.Builder<?>> builders) {
+            MockBean.SignatureCache signatures = new MockBean.SignatureCache();
+            builders.forEachOrdered(builder -> beans.add(builder.build(signatures)));
+            return self();
+        }
+
+        /**
+         *
+         * @param builders
+         * @return self
+         * @see #addMockBeans(Stream)
+         * @since 2.0.2
+         */
+        public T addMockBeans(Collection<? extends MockBean.Builder<?>> builders) {
+            return addMockBeans(builders.stream());
+        }
+
         /**
          * Binds a name to an object. This allows to mock {@link Resource} injection points easily, e.g.:
          *
@@ -491,6 +879,48 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
             return self();
         }
 
+        /**
+         * Instructs the initiator to add an {@link ExecutorService} bean with qualifier {@link Propagating}. The executor uses a fixed thread pool and
+         * propagates the contexts activated by the initiator to its threads. The thread pool is shut down together with the container.
+         *
+         * @param threads the number of threads
+         * @return self
+         * @see AbstractWeldInitiator#propagating(Executor)
+         * @since 2.0.2
+         */
+        public T addPropagatingExecutor(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+            }
+            this.propagatingExecutorThreads = threads;
+            return self();
+        }
+
+        /**
+         * Defines how the contextual instances are destroyed when the contexts activated by the initiator are deactivated.
+         *
+         * @param destructionPolicy
+         * @return self
+         * @see DestructionPolicy
+         * @since 2.0.2
+         */
+        public T setDestructionPolicy(DestructionPolicy destructionPolicy) {
+            this.destructionPolicy = Objects.requireNonNull(destructionPolicy);
+            return self();
+        }
+
+        /**
+         * Instructs the initiator not to fire the {@code @Initialized} and {@code @Destroyed} events for the activated contexts if there is no observer
+         * method to notify. By default, the events are always fired.
+         *
+         * @return self
+         * @since 2.0.2
+         */
+        public T skipUnobservedLifecycleEvents() {
+            this.skipUnobservedLifecycleEvents = true;
+            return self();
+        }
+
         protected abstract T self();
 
         protected abstract I build(Weld weld, List<Object> instancesToInject, Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans);
@@ -519,6 +949,11 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
             weld.addServices(new MockJpaInjectionServices(persistenceUnitFactory, persistenceContextFactory));
         }
         // Init the container
+        events.clear();
+        injectionPlans.clear();
+        if (extension != null) {
+            extension.clearDestructionReport();
+        }
         container = weld.initialize();
         if (extension != null) {
             extension.activateContexts();
@@ -534,9 +969,44 @@ public abstract class AbstractWeldInitiator implements Instance<Object>, Contain
             }
             releaseInstances();
         } finally {
+            events.clear();
+            injectionPlans.clear();
             if (container != null && container.isRunning()) {
                 container.shutdown();
             }
         }
     }
+
+    private static final class EventKey {
+
+        private final Class<?> type;
+
+        private final Annotation[] qualifiers;
+
+        private final int hashCode;
+
+        EventKey(Class<?> type, Annotation[] qualifiers) {
+            this.type = type;
+            this.qualifiers = qualifiers;
+            this.hashCode = 31 * type.hashCode() + Arrays.hashCode(qualifiers);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof EventKey)) {
+                return false;
+            }
+            EventKey other = (EventKey) obj;
+            return type.equals(other.type) && Arrays.equals(qualifiers, other.qualifiers);
+        }
+
+    }
 }
@@ -0,0 +1,544 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import javax.decorator.Decorator;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.AnnotatedMember;
+import javax.enterprise.inject.spi.AnnotatedType;
+import javax.enterprise.inject.spi.BeforeShutdown;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.inject.spi.InjectionTarget;
+import javax.enterprise.inject.spi.InterceptionType;
+import javax.enterprise.inject.spi.Interceptor;
+import javax.enterprise.inject.spi.Prioritized;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import javax.enterprise.inject.spi.ProcessInjectionTarget;
+import javax.enterprise.inject.spi.ProcessProducer;
+import javax.enterprise.inject.spi.Producer;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+
+/**
+ * A portable extension which measures the selected beans without the need to declare interceptor bindings:
+ *
+ * <pre>
+ * static final BeanProfilingExtension PROFILING = BeanProfilingExtension.forPackages("com.acme.services");
+ *
+ * &#64;WeldSetup
+ * public WeldInitiator weld = WeldInitiator.from(WeldInitiator.createWeld().addExtension(PROFILING).addPackages(true, Foo.class)).build();
+ *
+ * &#64;AfterAll
+ * public static void report() {
+ *     System.out.println(PROFILING.getReport());
+ * }
+ * </pre>
+ *
+ * <p>
+ * The {@link InjectionTarget} of a selected managed bean and the {@link Producer} of a producer method or field declared by a selected bean class are
+ * wrapped so that the creation time, the field and initializer method injection time and the {@code @PostConstruct} callback time are recorded.
+ * Moreover, a global interceptor with the highest priority is bound to the selected bean classes in order to record the time of business method
+ * invocations. Final classes and classes which declare a non-private final method are not intercepted because they are not proxyable.
+ * </p>
+ *
+ * <p>
+ * The profiles are never discarded automatically. Use {@link #reset()} to start a new measurement.
+ * </p>
+ *
+ * @see BeanProfile
+ * @since 2.0.2
+ */
+public class BeanProfilingExtension implements Extension {
+
+    /**
+     *
+     * @param packages
+     * @return a new extension which profiles the beans declared in the given packages and their subpackages
+     */
+    public static BeanProfilingExtension forPackages(String... packages) {
+        List<String> prefixes = new ArrayList<>(packages.length);
+        for (String pkg : packages) {
+            prefixes.add(pkg + ".");
+        }
+        return new BeanProfilingExtension(clazz -> {
+            for (String prefix : prefixes) {
+                if (clazz.getName().startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     *
+     * @param types
+     * @return a new extension which profiles the beans whose bean class is assignable to any of the given types
+     */
+    public static BeanProfilingExtension forTypes(Class<?>... types) {
+        return new BeanProfilingExtension(clazz -> {
+            for (Class<?> type : types) {
+                if (type.isAssignableFrom(clazz)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     *
+     * @param predicate the predicate is tested against the bean class, or the declaring class of a producer method or field
+     * @return a new extension which profiles the beans matching the given predicate
+     */
+    public static BeanProfilingExtension matching(Predicate<Class<?>> predicate) {
+        return new BeanProfilingExtension(predicate);
+    }
+
+    private final Predicate<Class<?>> predicate;
+
+    // Bean class -> profile of a managed bean
+    private final ConcurrentMap<Class<?>, BeanProfile> beanProfiles;
+
+    // Producer method or field -> profile
+    private final ConcurrentMap<AnnotatedMember<?>, BeanProfile> producerProfiles;
+
+    // Intercepted instance class -> profile
+    private final ConcurrentMap<Class<?>, BeanProfile> interceptedProfiles;
+
+    protected BeanProfilingExtension(Predicate<Class<?>> predicate) {
+        this.predicate = predicate;
+        this.beanProfiles = new ConcurrentHashMap<>();
+        this.producerProfiles = new ConcurrentHashMap<>();
+        this.interceptedProfiles = new ConcurrentHashMap<>();
+    }
+
+    <T> void bindInterceptor(@Observes ProcessAnnotatedType<T> event) {
+        AnnotatedType<T> type = event.getAnnotatedType();
+        Class<T> clazz = type.getJavaClass();
+        if (isInterceptable(clazz) && !type.isAnnotationPresent(javax.interceptor.Interceptor.class) && !type.isAnnotationPresent(Decorator.class)
+                && predicate.test(clazz)) {
+            event.configureAnnotatedType().add(Profiled.Literal.INSTANCE);
+        }
+    }
+
+    <T> void wrapInjectionTarget(@Observes ProcessInjectionTarget<T> event) {
+        Class<T> clazz = event.getAnnotatedType().getJavaClass();
+        if (predicate.test(clazz)) {
+            BeanProfile profile = beanProfiles.computeIfAbsent(clazz, c -> new BeanProfile(c.getName()));
+            event.setInjectionTarget(new ProfilingInjectionTarget<>(event.getInjectionTarget(), profile));
+        }
+    }
+
+    <T, X> void wrapProducer(@Observes ProcessProducer<T, X> event) {
+        AnnotatedMember<T> member = event.getAnnotatedMember();
+        Class<T> declaringClass = member.getDeclaringType().getJavaClass();
+        if (predicate.test(declaringClass)) {
+            BeanProfile profile = producerProfiles.computeIfAbsent(member,
+                    m -> new BeanProfile(declaringClass.getName() + "#" + m.getJavaMember().getName()));
+            event.setProducer(new ProfilingProducer<>(event.getProducer(), profile));
+        }
+    }
+
+    void addInterceptor(@Observes AfterBeanDiscovery event) {
+        event.addBean(new ProfilingInterceptor(this));
+    }
+
+    void clearInterceptedClasses(@Observes BeforeShutdown event) {
+        // The intercepted classes are generated by the container and must not be retained if the extension is reused
+        interceptedProfiles.clear();
+    }
+
+    /**
+     *
+     * @param beanClass
+     * @return the profile of the given managed bean or {@code null} if the bean was not selected, a profile with no recorded values exists for each
+     *         selected bean discovered by the container
+     */
+    public BeanProfile getProfile(Class<?> beanClass) {
+        return beanProfiles.get(beanClass);
+    }
+
+    /**
+     *
+     * @return the profiles of all the selected beans, the slowest first
+     * @see BeanProfile#getTotal(TimeUnit)
+     */
+    public List<BeanProfile> getProfiles() {
+        List<BeanProfile> profiles = new ArrayList<>(beanProfiles.values());
+        profiles.addAll(producerProfiles.values());
+        profiles.sort(Comparator.comparingLong((BeanProfile p) -> p.getTotal(TimeUnit.NANOSECONDS)).reversed());
+        return profiles;
+    }
+
+    /**
+     *
+     * @return a human-readable report, the slowest beans first
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (BeanProfile profile : getProfiles()) {
+            report.append(profile);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Discards all the recorded values.
+     */
+    public void reset() {
+        for (BeanProfile profile : beanProfiles.values()) {
+            profile.reset();
+        }
+        for (BeanProfile profile : producerProfiles.values()) {
+            profile.reset();
+        }
+        interceptedProfiles.clear();
+    }
+
+    Object intercept(InvocationContext ctx) throws Exception {
+        BeanProfile profile = findProfile(ctx.getTarget().getClass());
+        return profile != null ? profile.methods.invoke(ctx, null) : ctx.proceed();
+    }
+
+    private BeanProfile findProfile(Class<?> instanceClass) {
+        BeanProfile profile = interceptedProfiles.get(instanceClass);
+        if (profile == null) {
+            // The intercepted instance is usually a subclass generated by the container
+            for (Class<?> clazz = instanceClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                profile = beanProfiles.get(clazz);
+                if (profile != null) {
+                    interceptedProfiles.put(instanceClass, profile);
+                    break;
+                }
+            }
+        }
+        return profile;
+    }
+
+    private static boolean isInterceptable(Class<?> clazz) {
+        if (Modifier.isFinal(clazz.getModifiers()) || clazz.isInterface() || clazz.isAnnotation() || clazz.isEnum()) {
+            return false;
+        }
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isFinal(modifiers) && !Modifier.isPrivate(modifiers) && !Modifier.isStatic(modifiers)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The profile of a managed bean or a producer method or field.
+     */
+    public static final class BeanProfile {
+
+        private final String name;
+
+        private final LatencyHistogram creation;
+
+        private final LatencyHistogram injection;
+
+        private final LatencyHistogram postConstruct;
+
+        private final InvocationProfiler methods;
+
+        BeanProfile(String name) {
+            this.name = name;
+            this.creation = new LatencyHistogram();
+            this.injection = new LatencyHistogram();
+            this.postConstruct = new LatencyHistogram();
+            this.methods = new InvocationProfiler();
+        }
+
+        /**
+         *
+         * @return the bean class name, or the declaring class name and the member name for a producer
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         *
+         * @return the histogram of the instantiation time, including the constructor injection and the creation of interceptor instances
+         */
+        public LatencyHistogram getCreation() {
+            return creation;
+        }
+
+        /**
+         * Producers do not perform any field or initializer method injection and so this histogram is always empty.
+         *
+         * @return the histogram of the field and initializer method injection time
+         */
+        public LatencyHistogram getInjection() {
+            return injection;
+        }
+
+        /**
+         *
+         * @return the histogram of the {@code @PostConstruct} callback time
+         */
+        public LatencyHistogram getPostConstruct() {
+            return postConstruct;
+        }
+
+        /**
+         *
+         * @return the business method invocations
+         */
+        public InvocationProfiler getMethods() {
+            return methods;
+        }
+
+        /**
+         *
+         * @param unit
+         * @return the total time spent in the bean, i.e. creation, injection, {@code @PostConstruct} callbacks and business methods
+         */
+        public long getTotal(TimeUnit unit) {
+            long total = creation.getTotal(TimeUnit.NANOSECONDS) + injection.getTotal(TimeUnit.NANOSECONDS) + postConstruct.getTotal(TimeUnit.NANOSECONDS);
+            for (LatencyHistogram histogram : methods.getHistograms().values()) {
+                total += histogram.getTotal(TimeUnit.NANOSECONDS);
+            }
+            return unit.convert(total, TimeUnit.NANOSECONDS);
+        }
+
+        void reset() {
+            creation.reset();
+            injection.reset();
+            postConstruct.reset();
+            methods.reset();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(name).append(" [total=").append(getTotal(TimeUnit.MICROSECONDS)).append(" us]\n");
+            builder.append("  creation: ").append(creation).append('\n');
+            builder.append("  injection: ").append(injection).append('\n');
+            builder.append("  postConstruct: ").append(postConstruct).append('\n');
+            String report = methods.getReport();
+            if (!report.isEmpty()) {
+                for (String line : report.split("\n")) {
+                    builder.append("  ").append(line).append('\n');
+                }
+            }
+            return builder.toString();
+        }
+
+    }
+
+    @Target({ TYPE, METHOD })
+    @Retention(RUNTIME)
+    @InterceptorBinding
+    @interface Profiled {
+
+        @SuppressWarnings("serial")
+        final class Literal extends AnnotationLiteral<Profiled> implements Profiled {
+
+            static final Literal INSTANCE = new Literal();
+
+        }
+
+    }
+
+    private static class ProfilingProducer<T> implements Producer<T> {
+
+        private final Producer<T> delegate;
+
+        final BeanProfile profile;
+
+        ProfilingProducer(Producer<T> delegate, BeanProfile profile) {
+            this.delegate = delegate;
+            this.profile = profile;
+        }
+
+        @Override
+        public T produce(CreationalContext<T> ctx) {
+            long start = System.nanoTime();
+            try {
+                return delegate.produce(ctx);
+            } finally {
+                profile.creation.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void dispose(T instance) {
+            delegate.dispose(instance);
+        }
+
+        @Override
+        public Set<InjectionPoint> getInjectionPoints() {
+            return delegate.getInjectionPoints();
+        }
+
+    }
+
+    private static final class ProfilingInjectionTarget<T> extends ProfilingProducer<T> implements InjectionTarget<T> {
+
+        private final InjectionTarget<T> delegate;
+
+        ProfilingInjectionTarget(InjectionTarget<T> delegate, BeanProfile profile) {
+            super(delegate, profile);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void inject(T instance, CreationalContext<T> ctx) {
+            long start = System.nanoTime();
+            try {
+                delegate.inject(instance, ctx);
+            } finally {
+                profile.injection.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void postConstruct(T instance) {
+            long start = System.nanoTime();
+            try {
+                delegate.postConstruct(instance);
+            } finally {
+                profile.postConstruct.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void preDestroy(T instance) {
+            delegate.preDestroy(instance);
+        }
+
+    }
+
+    private static final class ProfilingInterceptor implements Interceptor<BeanProfilingExtension>, Prioritized {
+
+        private final BeanProfilingExtension extension;
+
+        ProfilingInterceptor(BeanProfilingExtension extension) {
+            this.extension = extension;
+        }
+
+        @Override
+        public int getPriority() {
+            // Invoked first so that the time spent in other interceptors is included
+            return javax.interceptor.Interceptor.Priority.PLATFORM_BEFORE;
+        }
+
+        @Override
+        public Set<Annotation> getInterceptorBindings() {
+            return Collections.singleton(Profiled.Literal.INSTANCE);
+        }
+
+        @Override
+        public boolean intercepts(InterceptionType type) {
+            return InterceptionType.AROUND_INVOKE.equals(type);
+        }
+
+        @Override
+        public Object intercept(InterceptionType type, BeanProfilingExtension instance, InvocationContext ctx) throws Exception {
+            return instance.intercept(ctx);
+        }
+
+        @Override
+        public BeanProfilingExtension create(CreationalContext<BeanProfilingExtension> creationalContext) {
+            return extension;
+        }
+
+        @Override
+        public void destroy(BeanProfilingExtension instance, CreationalContext<BeanProfilingExtension> creationalContext) {
+            // No-op
+        }
+
+        @Override
+        public Class<?> getBeanClass() {
+            return BeanProfilingExtension.class;
+        }
+
+        @Override
+        public Set<InjectionPoint> getInjectionPoints() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        public Set<Type> getTypes() {
+            return Collections.singleton(Object.class);
+        }
+
+        @Override
+        public Set<Annotation> getQualifiers() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Class<? extends Annotation> getScope() {
+            return Dependent.class;
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+
+        @Override
+        public Set<Class<? extends Annotation>> getStereotypes() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean isAlternative() {
+            return false;
+        }
+
+    }
+
+}
@@ -17,13 +17,15 @@
 package org.jboss.weld.junit;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Logger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.context.ContextNotActiveException;
-import javax.enterprise.context.Destroyed;
-import javax.enterprise.context.Initialized;
 import javax.enterprise.context.spi.Context;
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
@@ -35,18 +37,30 @@ import javax.enterprise.inject.spi.BeanManager;
  */
 class ContextImpl implements Context {
 
-    private static final Logger LOGGER = Logger.getLogger(ContextImpl.class.getName());
-
     private final Class<? extends Annotation> scope;
 
     private final BeanManager beanManager;
 
-    // It's a normal scope so there may be no more than one mapped instance per contextual type per thread
-    private final ThreadLocal<Map<Contextual<?>, ContextualInstance<?>>> currentContext = new ThreadLocal<>();
+    private final Storage storage;
+
+    private final InstanceDestroyer destroyer;
+
+    private final LifecycleEvents events;
+
+    private final ReusableInstances reusable;
 
     ContextImpl(Class<? extends Annotation> scope, BeanManager beanManager) {
+        this(scope, beanManager, new ThreadLocalStorage(), new InstanceDestroyer(DestructionPolicy.sequential()), false);
+    }
+
+    ContextImpl(Class<? extends Annotation> scope, BeanManager beanManager, Storage storage, InstanceDestroyer destroyer,
+            boolean skipUnobservedLifecycleEvents) {
         this.scope = scope;
         this.beanManager = beanManager;
+        this.storage = storage;
+        this.destroyer = destroyer;
+        this.events = new LifecycleEvents(beanManager, scope, skipUnobservedLifecycleEvents);
+        this.reusable = new ReusableInstances();
     }
 
     public Class<? extends Annotation> getScope() {
@@ -55,10 +69,10 @@ class ContextImpl implements Context {
 
     @SuppressWarnings("unchecked")
     public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext) {
-        Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext.get();
+        Map<Contextual<?>, ContextualInstance<?>> ctx = storage.get();
 
         if (ctx == null) {
-            // Thread local not set - context is not active!
+            // Storage not set - context is not active!
             throw new ContextNotActiveException();
         }
 
@@ -66,8 +80,7 @@ class ContextImpl implements Context {
 
         if (instance == null && creationalContext != null) {
             // Bean instance does not exist - create one if we have CreationalContext
-            instance = new ContextualInstance<T>(contextual.create(creationalContext), creationalContext, contextual);
-            ctx.put(contextual, instance);
+            instance = storage.create(ctx, contextual, creationalContext, reusable);
         }
         return instance != null ? instance.get() : null;
     }
@@ -77,11 +90,11 @@ class ContextImpl implements Context {
     }
 
     public boolean isActive() {
-        return currentContext.get() != null;
+        return storage.get() != null;
     }
 
     public void destroy(Contextual<?> contextual) {
-        Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext.get();
+        Map<Contextual<?>, ContextualInstance<?>> ctx = storage.get();
         if (ctx == null) {
             return;
         }
@@ -89,25 +102,411 @@ class ContextImpl implements Context {
     }
 
     public void activate() {
-        currentContext.set(new HashMap<Contextual<?>, ContextualInstance<?>>());
-        beanManager.fireEvent(new Object(), Initialized.Literal.of(scope));
+        storage.activate();
+        events.fireInitialized();
     }
 
     public void deactivate() {
-        Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext.get();
-        if (ctx == null) {
+        Collection<ContextualInstance<?>> instances = storage.deactivate();
+        if (instances == null) {
             return;
         }
-        for (ContextualInstance<?> instance : ctx.values()) {
-            try {
-                instance.destroy();
-            } catch (Exception e) {
-                LOGGER.warning("Unable to destroy instance" + instance.get() + " for bean: " + instance.getContextual());
+        try {
+            // The state is still bound so that a @PreDestroy callback may use other beans in the same scope
+            destroyer.destroy(reusable.release(instances), this);
+        } finally {
+            storage.unbind();
+        }
+        events.fireDestroyed();
+    }
+
+    /**
+     * Opens a new independent state identified by the given token. Only makes sense for {@link ContextMode#TOKEN}.
+     *
+     * @param token
+     */
+    void open(ContextToken token) {
+        if (storage instanceof TokenStorage) {
+            ((TokenStorage) storage).open(token);
+            events.fireInitialized();
+        }
+    }
+
+    /**
+     * Destroys the state identified by the given token. Only makes sense for {@link ContextMode#TOKEN}.
+     *
+     * @param token
+     */
+    void close(ContextToken token) {
+        if (storage instanceof TokenStorage) {
+            TokenStorage tokenStorage = (TokenStorage) storage;
+            Map<Contextual<?>, ContextualInstance<?>> ctx = tokenStorage.get(token);
+            if (ctx != null) {
+                // The closed state is bound so that a @PreDestroy callback may use other beans in the same scope
+                Object previous = tokenStorage.attach(token);
+                try {
+                    destroyer.destroy(reusable.release(new ArrayList<>(ctx.values())), this);
+                } finally {
+                    tokenStorage.attach(previous);
+                    tokenStorage.close(token);
+                }
+                events.fireDestroyed();
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of context lifecycles on the current thread. The map of contextual instances is reused and the lifecycle events are only fired
+     * if there is an observer method to notify. The state bound to the current thread is restored afterwards.
+     *
+     * @param cycles
+     * @param task
+     * @throws IllegalStateException if the context was not activated with {@link ContextMode#THREAD_LOCAL} or {@link ContextMode#INDEXED}
+     */
+    void runCycles(int cycles, Runnable task) {
+        if (!(storage instanceof ThreadLocalStorage)) {
+            throw new IllegalStateException("Cycles can only be run for a context activated with ContextMode.THREAD_LOCAL or INDEXED: " + scope.getName());
+        }
+        Map<Contextual<?>, ContextualInstance<?>> ctx = ((ThreadLocalStorage) storage).newMap();
+        Object previous = storage.attach(ctx);
+        try {
+            for (int i = 0; i < cycles; i++) {
+                events.fireInitialized(true);
+                try {
+                    task.run();
+                } finally {
+                    // The state may have been replaced if propagated to other threads
+                    Map<Contextual<?>, ContextualInstance<?>> current = storage.get();
+                    destroyer.destroy(reusable.release(current.values()), this);
+                    // The map keeps its capacity
+                    current.clear();
+                    events.fireDestroyed(true);
+                }
+            }
+        } finally {
+            storage.attach(previous);
+        }
+    }
+
+    /**
+     * Assigns array slots to the given contextuals. Only makes sense for {@link ContextMode#INDEXED}.
+     *
+     * @param contextuals
+     */
+    void index(Collection<? extends Contextual<?>> contextuals) {
+        if (storage instanceof ThreadLocalStorage) {
+            ((ThreadLocalStorage) storage).index(new ContextualSlots(contextuals));
+        }
+    }
+
+    /**
+     *
+     * @return the map of contextual instances bound to the current thread or {@code null} if the context is not active
+     */
+    Map<Contextual<?>, ContextualInstance<?>> getCurrentInstances() {
+        return storage.get();
+    }
+
+    /**
+     * Destroys the instances of reusable beans kept for the next activation.
+     */
+    void destroyReusableInstances() {
+        destroyer.destroy(reusable.drain(), null);
+    }
+
+    /**
+     *
+     * @return the state of the context bound to the current thread or {@code null} if there is nothing to propagate
+     * @see #attach(Object)
+     */
+    Object capture() {
+        return storage.capture();
+    }
+
+    /**
+     * Binds the captured state to the current thread. No events are fired - the context itself is neither activated nor deactivated.
+     *
+     * @param state the captured state or {@code null} to unbind the current state
+     * @return the state previously bound to the current thread
+     */
+    Object attach(Object state) {
+        return storage.attach(state);
+    }
+
+    static <T> ContextualInstance<T> newInstance(Map<Contextual<?>, ContextualInstance<?>> ctx, Contextual<T> contextual,
+            CreationalContext<T> creationalContext, ReusableInstances reusable) {
+        ContextualInstance<T> instance = reusable.take(contextual);
+        if (instance == null) {
+            instance = new ContextualInstance<T>(contextual.create(creationalContext), creationalContext, contextual);
+        }
+        ctx.put(contextual, instance);
+        return instance;
+    }
+
+    /**
+     * Holds the contextual instances of the currently active context.
+     */
+    interface Storage {
+
+        /**
+         *
+         * @return the map of contextual instances or {@code null} if the context is not active
+         */
+        Map<Contextual<?>, ContextualInstance<?>> get();
+
+        void activate();
+
+        /**
+         * The state remains bound until {@link #unbind()} is invoked so that the instances can be destroyed while the context is still active.
+         *
+         * @return the contextual instances to destroy or {@code null} if the context was not active
+         */
+        Collection<ContextualInstance<?>> deactivate();
+
+        /**
+         * Discards the state of a deactivated context.
+         */
+        void unbind();
+
+        /**
+         *
+         * @return the state bound to the current thread or {@code null} if the state is not bound to a thread
+         */
+        default Object capture() {
+            return null;
+        }
+
+        default Object attach(Object state) {
+            return null;
+        }
+
+        default <T> ContextualInstance<T> create(Map<Contextual<?>, ContextualInstance<?>> ctx, Contextual<T> contextual,
+                CreationalContext<T> creationalContext, ReusableInstances reusable) {
+            return newInstance(ctx, contextual, creationalContext, reusable);
+        }
+
+    }
+
+    static final class ThreadLocalStorage implements Storage {
+
+        // It's a normal scope so there may be no more than one mapped instance per contextual type per thread
+        private final ThreadLocal<Map<Contextual<?>, ContextualInstance<?>>> currentContext = new ThreadLocal<>();
+
+        // If set then the contextual instances are stored in an array
+        private volatile ContextualSlots slots;
+
+        /**
+         *
+         * @param slots the slots assigned to the contextuals known at bootstrap
+         */
+        void index(ContextualSlots slots) {
+            this.slots = slots;
+        }
+
+        Map<Contextual<?>, ContextualInstance<?>> newMap() {
+            ContextualSlots slots = this.slots;
+            return slots != null ? slots.newMap() : new HashMap<>();
+        }
+
+        @Override
+        public Map<Contextual<?>, ContextualInstance<?>> get() {
+            return currentContext.get();
+        }
+
+        @Override
+        public void activate() {
+            currentContext.set(newMap());
+        }
+
+        @Override
+        public Collection<ContextualInstance<?>> deactivate() {
+            Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext.get();
+            return ctx != null ? new ArrayList<>(ctx.values()) : null;
+        }
+
+        @Override
+        public void unbind() {
+            currentContext.remove();
+        }
+
+        /**
+         * The captured state is going to be accessed by multiple threads and so it's replaced with a concurrent copy.
+         */
+        @Override
+        public Object capture() {
+            Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext.get();
+            if (ctx != null && !(ctx instanceof SharedState)) {
+                ctx = new SharedState(ctx);
+                currentContext.set(ctx);
+            }
+            return ctx;
+        }
+
+        @Override
+        public <T> ContextualInstance<T> create(Map<Contextual<?>, ContextualInstance<?>> ctx, Contextual<T> contextual,
+                CreationalContext<T> creationalContext, ReusableInstances reusable) {
+            if (ctx instanceof SharedState) {
+                return createOnce(((SharedState) ctx).locks, ctx, contextual, creationalContext, reusable);
+            }
+            return newInstance(ctx, contextual, creationalContext, reusable);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object attach(Object state) {
+            Map<Contextual<?>, ContextualInstance<?>> previous = currentContext.get();
+            if (state != null) {
+                currentContext.set((Map<Contextual<?>, ContextualInstance<?>>) state);
+            } else {
+                currentContext.remove();
+            }
+            return previous;
+        }
+
+    }
+
+    /**
+     * The state may be accessed by multiple threads at the same time.
+     */
+    abstract static class ConcurrentStorage implements Storage {
+
+        // Creation is serialized per contextual so that an instance is never created twice
+        private final ConcurrentMap<Contextual<?>, Object> locks = new ConcurrentHashMap<>();
+
+        @Override
+        public <T> ContextualInstance<T> create(Map<Contextual<?>, ContextualInstance<?>> ctx, Contextual<T> contextual,
+                CreationalContext<T> creationalContext, ReusableInstances reusable) {
+            return createOnce(locks, ctx, contextual, creationalContext, reusable);
+        }
+
+    }
+
+    /**
+     * A thread-bound state which was propagated to other threads.
+     */
+    @SuppressWarnings("serial")
+    static final class SharedState extends ConcurrentHashMap<Contextual<?>, ContextualInstance<?>> {
+
+        private final ConcurrentMap<Contextual<?>, Object> locks = new ConcurrentHashMap<>();
+
+        SharedState(Map<Contextual<?>, ContextualInstance<?>> ctx) {
+            super(ctx);
+        }
+
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ContextualInstance<T> createOnce(ConcurrentMap<Contextual<?>, Object> locks, Map<Contextual<?>, ContextualInstance<?>> ctx,
+            Contextual<T> contextual, CreationalContext<T> creationalContext, ReusableInstances reusable) {
+        // Note that ConcurrentHashMap.computeIfAbsent() cannot be used - the creation of a contextual instance may need to obtain another one
+        synchronized (locks.computeIfAbsent(contextual, c -> new Object())) {
+            ContextualInstance<T> instance = (ContextualInstance<T>) ctx.get(contextual);
+            if (instance == null) {
+                instance = newInstance(ctx, contextual, creationalContext, reusable);
+            }
+            return instance;
+        }
+    }
+
+    static final class SharedStorage extends ConcurrentStorage {
+
+        private volatile Map<Contextual<?>, ContextualInstance<?>> currentContext;
+
+        @Override
+        public Map<Contextual<?>, ContextualInstance<?>> get() {
+            return currentContext;
+        }
+
+        @Override
+        public void activate() {
+            currentContext = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public Collection<ContextualInstance<?>> deactivate() {
+            Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext;
+            return ctx != null ? new ArrayList<>(ctx.values()) : null;
+        }
+
+        @Override
+        public void unbind() {
+            currentContext = null;
+        }
+
+    }
+
+    /**
+     * The state is not bound to a thread directly. Instead, there is one state per {@link ContextToken} and the current token is bound to the thread. The
+     * token is inherited by the threads created by the thread it is bound to.
+     */
+    static final class TokenStorage extends ConcurrentStorage {
+
+        private final InheritableThreadLocal<ContextToken> currentToken = new InheritableThreadLocal<>();
+
+        private final ConcurrentMap<ContextToken, Map<Contextual<?>, ContextualInstance<?>>> states = new ConcurrentHashMap<>();
+
+        @Override
+        public Map<Contextual<?>, ContextualInstance<?>> get() {
+            ContextToken token = currentToken.get();
+            return token != null ? states.get(token) : null;
+        }
+
+        @Override
+        public void activate() {
+            // The token bound to the activating thread by the extension
+            ContextToken token = currentToken.get();
+            if (token != null) {
+                open(token);
+            }
+        }
+
+        @Override
+        public Collection<ContextualInstance<?>> deactivate() {
+            if (states.isEmpty()) {
+                return null;
+            }
+            // All the states are destroyed, not only the one bound to the current thread
+            List<ContextualInstance<?>> instances = new ArrayList<>();
+            for (Map<Contextual<?>, ContextualInstance<?>> ctx : states.values()) {
+                instances.addAll(ctx.values());
+            }
+            return instances;
+        }
+
+        @Override
+        public void unbind() {
+            states.clear();
+            currentToken.remove();
+        }
+
+        @Override
+        public Object capture() {
+            return currentToken.get();
+        }
+
+        @Override
+        public Object attach(Object state) {
+            ContextToken previous = currentToken.get();
+            if (state != null) {
+                currentToken.set((ContextToken) state);
+            } else {
+                currentToken.remove();
             }
+            return previous;
+        }
+
+        void open(ContextToken token) {
+            states.put(token, new ConcurrentHashMap<>());
         }
-        ctx.clear();
-        currentContext.remove();
-        beanManager.fireEvent(new Object(), Destroyed.Literal.of(scope));
+
+        Map<Contextual<?>, ContextualInstance<?>> get(ContextToken token) {
+            return states.get(token);
+        }
+
+        Map<Contextual<?>, ContextualInstance<?>> close(ContextToken token) {
+            return states.remove(token);
+        }
+
     }
 
     /**
@@ -0,0 +1,64 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+/**
+ * Defines how a context activated by the initiator is bound to the threads of a test.
+ *
+ * @see AbstractWeldInitiator.AbstractBuilder#activate(ContextMode, Class...)
+ * @since 2.0.2
+ */
+public enum ContextMode {
+
+    /**
+     * The context is only active on the thread that activated it, i.e. usually the thread executing the test. This is the default mode. Once the state is
+     * propagated to other threads, e.g. via {@link AbstractWeldInitiator#propagating(Runnable)}, it's replaced with a concurrent map and each contextual
+     * instance is created at most once.
+     */
+    THREAD_LOCAL,
+
+    /**
+     * A single context is active on all threads. Contextual instances are stored in a concurrent map and each contextual instance is created at most once,
+     * even if multiple threads attempt to obtain it at the same time.
+     */
+    SHARED,
+
+    /**
+     * The state of the context is identified by a {@link ContextToken}. Only the token is bound to a thread and the token is inherited by the threads created
+     * by that thread. A new independent state, e.g. a separate request for {@link javax.enterprise.context.RequestScoped}, is obtained via
+     * {@link AbstractWeldInitiator#openContextToken(Class...)}. This mode is suitable for tests running a large number of short-lived tasks, each within its own
+     * context. Note that the threads of an executor are reused - the tasks submitted to an executor returned by
+     * {@link AbstractWeldInitiator#propagating(java.util.concurrent.Executor)} always use the token bound to the submitting thread, not the inherited one.
+     */
+    TOKEN,
+
+    /**
+     * Like {@link #THREAD_LOCAL} but the contextual instances are stored in an array. Each bean with the given scope gets an array slot during bootstrap and
+     * the slot is looked up by identity. A contextual without a slot, e.g. a contextual not registered as a bean, is stored in a fallback map. This mode may
+     * speed up tests which invoke the client proxies of the beans very often. A propagated state is replaced with a concurrent map, see {@link #THREAD_LOCAL}.
+     */
+    INDEXED,
+
+    /**
+     * No custom context is registered. Instead, the built-in bound contexts provided by Weld are activated, i.e. the proxy instance caching and other
+     * optimizations of Weld are used and the behavior is closer to a production environment. Only {@link javax.enterprise.context.RequestScoped},
+     * {@link javax.enterprise.context.SessionScoped} and {@link javax.enterprise.context.ConversationScoped} are supported. The contexts are only active on
+     * the thread that activated them and cannot be propagated to other threads.
+     */
+    NATIVE,
+
+}
@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Propagates the contexts activated by the initiator to the threads of the delegate executor. The state is captured when a task is submitted.
+ */
+final class ContextPropagatingExecutorService extends AbstractExecutorService {
+
+    private final Executor delegate;
+
+    private final Supplier<ContextSnapshot> snapshotSupplier;
+
+    ContextPropagatingExecutorService(Executor delegate, Supplier<ContextSnapshot> snapshotSupplier) {
+        this.delegate = delegate;
+        this.snapshotSupplier = snapshotSupplier;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(snapshotSupplier.get().wrap(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegateService().shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegateService().shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegateService().isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegateService().isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegateService().awaitTermination(timeout, unit);
+    }
+
+    private ExecutorService delegateService() {
+        if (delegate instanceof ExecutorService) {
+            return (ExecutorService) delegate;
+        }
+        throw new UnsupportedOperationException("The delegate executor does not support lifecycle methods: " + delegate);
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A snapshot of the thread-bound state of the contexts activated by the initiator. A snapshot is captured on one thread and then attached to another
+ * thread for the duration of a task.
+ */
+final class ContextSnapshot {
+
+    static final ContextSnapshot EMPTY = new ContextSnapshot(new ContextImpl[0], new Object[0]);
+
+    /**
+     * A context without any state bound to the current thread is captured as well, i.e. its state is unbound from the thread executing the task. Otherwise
+     * the task could use a state inherited by the executing thread, e.g. the context token bound when the thread was created.
+     *
+     * @param contexts
+     * @return the snapshot of the given contexts for the current thread
+     */
+    static ContextSnapshot capture(List<ContextImpl> contexts) {
+        if (contexts.isEmpty()) {
+            return EMPTY;
+        }
+        ContextImpl[] captured = contexts.toArray(new ContextImpl[contexts.size()]);
+        Object[] states = new Object[captured.length];
+        for (int i = 0; i < captured.length; i++) {
+            states[i] = captured[i].capture();
+        }
+        return new ContextSnapshot(captured, states);
+    }
+
+    private final ContextImpl[] contexts;
+
+    private final Object[] states;
+
+    private ContextSnapshot(ContextImpl[] contexts, Object[] states) {
+        this.contexts = contexts;
+        this.states = states;
+    }
+
+    boolean isEmpty() {
+        return contexts.length == 0;
+    }
+
+    /**
+     * Attaches the captured state to the current thread.
+     *
+     * @return the snapshot of the previous state that should be used to restore the current thread
+     */
+    ContextSnapshot attach() {
+        // The previous state is restored in reverse order because some contexts may share the thread-bound state, e.g. the current context token
+        ContextImpl[] reversed = new ContextImpl[contexts.length];
+        Object[] previous = new Object[contexts.length];
+        for (int i = 0; i < contexts.length; i++) {
+            int idx = contexts.length - 1 - i;
+            reversed[idx] = contexts[i];
+            previous[idx] = contexts[i].attach(states[i]);
+        }
+        return new ContextSnapshot(reversed, previous);
+    }
+
+    Runnable wrap(Runnable task) {
+        if (isEmpty()) {
+            return task;
+        }
+        return () -> {
+            ContextSnapshot previous = attach();
+            try {
+                task.run();
+            } finally {
+                previous.attach();
+            }
+        };
+    }
+
+    <V> Callable<V> wrap(Callable<V> task) {
+        if (isEmpty()) {
+            return task;
+        }
+        return () -> {
+            ContextSnapshot previous = attach();
+            try {
+                return task.call();
+            } finally {
+                previous.attach();
+            }
+        };
+    }
+
+}
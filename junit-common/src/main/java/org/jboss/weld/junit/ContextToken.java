@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Identifies an independent state of the contexts activated with {@link ContextMode#TOKEN}, e.g. a single request or a simulated user session. The token
+ * can be bound to any thread:
+ *
+ * <pre>{@code
+ * executor.submit(() -> {
+ *     try (ContextToken token = weld.openContextToken()) {
+ *         token.run(() -> requestScopedBean.ping());
+ *     }
+ * });
+ * }</pre>
+ *
+ * <p>
+ * A token may only cover some of the contexts, e.g. a token opened for {@link javax.enterprise.context.SessionScoped} does not affect the state of the
+ * context for {@link javax.enterprise.context.RequestScoped} bound to the current thread. All the tokens which are not closed explicitly are closed when
+ * the contexts are deactivated.
+ * </p>
+ *
+ * @see AbstractWeldInitiator#openContextToken(Class...)
+ * @see ContextTokenGroup
+ * @since 2.0.2
+ */
+public final class ContextToken implements AutoCloseable {
+
+    private final List<ContextImpl> contexts;
+
+    ContextToken(List<ContextImpl> contexts) {
+        this.contexts = contexts;
+    }
+
+    /**
+     * Runs the given task with this token bound to the current thread. The previous binding is restored afterwards.
+     *
+     * @param task
+     */
+    public void run(Runnable task) {
+        Object[] previous = attach();
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Calls the given task with this token bound to the current thread. The previous binding is restored afterwards.
+     *
+     * @param task
+     * @return the result of the task
+     * @throws Exception
+     */
+    public <V> V call(Callable<V> task) throws Exception {
+        Object[] previous = attach();
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Binds this token to the current thread until another token is bound or this token is unbound. This is the cheapest way to switch between tokens,
+     * e.g. simulated sessions, on a single thread.
+     */
+    public void bind() {
+        attach();
+    }
+
+    /**
+     * Unbinds this token from the current thread. The token is not closed.
+     */
+    public void unbind() {
+        for (ContextImpl context : contexts) {
+            if (context.capture() == this) {
+                context.attach(null);
+            }
+        }
+    }
+
+    /**
+     * Destroys all the contextual instances associated with this token.
+     */
+    @Override
+    public void close() {
+        for (ContextImpl context : contexts) {
+            context.close(this);
+        }
+    }
+
+    private Object[] attach() {
+        Object[] previous = new Object[contexts.size()];
+        for (int i = 0; i < previous.length; i++) {
+            previous[i] = contexts.get(i).attach(this);
+        }
+        return previous;
+    }
+
+    private void restore(Object[] previous) {
+        for (int i = 0; i < previous.length; i++) {
+            contexts.get(i).attach(previous[i]);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A group of context tokens which are closed at once, e.g. a set of simulated user sessions.
+ *
+ * @see AbstractWeldInitiator#openContextTokens(int, Class...)
+ * @since 2.0.2
+ */
+public final class ContextTokenGroup implements Iterable<ContextToken>, AutoCloseable {
+
+    private final List<ContextToken> tokens;
+
+    ContextTokenGroup(List<ContextToken> tokens) {
+        this.tokens = Collections.unmodifiableList(tokens);
+    }
+
+    /**
+     *
+     * @param index
+     * @return the token at the given index
+     */
+    public ContextToken get(int index) {
+        return tokens.get(index);
+    }
+
+    /**
+     *
+     * @return the number of tokens
+     */
+    public int size() {
+        return tokens.size();
+    }
+
+    @Override
+    public Iterator<ContextToken> iterator() {
+        return tokens.iterator();
+    }
+
+    /**
+     * Closes all the tokens of the group.
+     */
+    @Override
+    public void close() {
+        for (ContextToken token : tokens) {
+            token.close();
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.context.spi.Contextual;
+
+import org.jboss.weld.junit.ContextImpl.ContextualInstance;
+
+/**
+ * Assigns a dense integer slot to each contextual known at bootstrap. The slots are looked up by identity, i.e. neither {@link Object#hashCode()} nor
+ * {@link Object#equals(Object)} of the contextual is invoked.
+ */
+final class ContextualSlots {
+
+    private final Object[] keys;
+
+    private final int[] slots;
+
+    private final int mask;
+
+    private final int size;
+
+    /**
+     *
+     * @param contextuals
+     */
+    ContextualSlots(Collection<? extends Contextual<?>> contextuals) {
+        int capacity = 2;
+        while (capacity < contextuals.size() * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new Object[capacity];
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        int slot = 0;
+        for (Contextual<?> contextual : contextuals) {
+            int idx = hash(contextual) & mask;
+            while (keys[idx] != null) {
+                if (keys[idx] == contextual) {
+                    break;
+                }
+                idx = (idx + 1) & mask;
+            }
+            if (keys[idx] == null) {
+                keys[idx] = contextual;
+                slots[idx] = slot++;
+            }
+        }
+        this.size = slot;
+    }
+
+    /**
+     *
+     * @return the number of slots
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     *
+     * @param contextual
+     * @return the slot or {@code -1} if no slot was assigned
+     */
+    int indexOf(Object contextual) {
+        int idx = hash(contextual) & mask;
+        while (true) {
+            Object key = keys[idx];
+            if (key == contextual) {
+                return slots[idx];
+            }
+            if (key == null) {
+                return -1;
+            }
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    /**
+     *
+     * @return a new empty map backed by an array
+     */
+    Map<Contextual<?>, ContextualInstance<?>> newMap() {
+        return new InstanceMap(this);
+    }
+
+    private static int hash(Object key) {
+        int h = System.identityHashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Contextual instances are stored in an array. A contextual without a slot, e.g. registered after bootstrap, is stored in a fallback map. This map is
+     * not thread-safe.
+     */
+    static final class InstanceMap extends AbstractMap<Contextual<?>, ContextualInstance<?>> {
+
+        private final ContextualSlots slots;
+
+        private final ContextualInstance<?>[] instances;
+
+        private Map<Contextual<?>, ContextualInstance<?>> fallback;
+
+        private int size;
+
+        InstanceMap(ContextualSlots slots) {
+            this.slots = slots;
+            this.instances = new ContextualInstance<?>[slots.size()];
+        }
+
+        @Override
+        public ContextualInstance<?> get(Object key) {
+            int slot = slots.indexOf(key);
+            if (slot >= 0) {
+                return instances[slot];
+            }
+            return fallback != null ? fallback.get(key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public ContextualInstance<?> put(Contextual<?> key, ContextualInstance<?> value) {
+            int slot = slots.indexOf(key);
+            if (slot >= 0) {
+                ContextualInstance<?> previous = instances[slot];
+                instances[slot] = value;
+                if (previous == null) {
+                    size++;
+                }
+                return previous;
+            }
+            if (fallback == null) {
+                fallback = new HashMap<>();
+            }
+            return fallback.put(key, value);
+        }
+
+        @Override
+        public ContextualInstance<?> remove(Object key) {
+            int slot = slots.indexOf(key);
+            if (slot >= 0) {
+                ContextualInstance<?> previous = instances[slot];
+                instances[slot] = null;
+                if (previous != null) {
+                    size--;
+                }
+                return previous;
+            }
+            return fallback != null ? fallback.remove(key) : null;
+        }
+
+        @Override
+        public int size() {
+            return size + (fallback != null ? fallback.size() : 0);
+        }
+
+        /**
+         *
+         * @return the number of instances stored in the fallback map
+         */
+        int fallbackSize() {
+            return fallback != null ? fallback.size() : 0;
+        }
+
+        @Override
+        public void clear() {
+            if (size > 0) {
+                Arrays.fill(instances, null);
+                size = 0;
+            }
+            if (fallback != null) {
+                fallback.clear();
+            }
+        }
+
+        @Override
+        public Collection<ContextualInstance<?>> values() {
+            List<ContextualInstance<?>> values = new ArrayList<>(size());
+            if (size > 0) {
+                for (ContextualInstance<?> instance : instances) {
+                    if (instance != null) {
+                        values.add(instance);
+                    }
+                }
+            }
+            if (fallback != null) {
+                values.addAll(fallback.values());
+            }
+            return values;
+        }
+
+        @Override
+        public Set<Entry<Contextual<?>, ContextualInstance<?>>> entrySet() {
+            // Not used by the context - a read-only snapshot is good enough
+            Map<Contextual<?>, ContextualInstance<?>> snapshot = new LinkedHashMap<>();
+            for (ContextualInstance<?> instance : values()) {
+                snapshot.put(instance.getContextual(), instance);
+            }
+            return Collections.unmodifiableMap(snapshot).entrySet();
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of {@link AbstractWeldInitiator#runCycles(Class, int, Runnable)}.
+ *
+ * @since 2.0.2
+ */
+public final class CycleReport {
+
+    private final Class<? extends Annotation> scope;
+
+    private final int cycles;
+
+    private final long durationNanos;
+
+    CycleReport(Class<? extends Annotation> scope, int cycles, long durationNanos) {
+        this.scope = scope;
+        this.cycles = cycles;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     *
+     * @return the scope
+     */
+    public Class<? extends Annotation> getScope() {
+        return scope;
+    }
+
+    /**
+     *
+     * @return the number of cycles
+     */
+    public int getCycles() {
+        return cycles;
+    }
+
+    /**
+     *
+     * @param unit
+     * @return the total duration in the given time unit
+     */
+    public long getDuration(TimeUnit unit) {
+        return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     *
+     * @return the number of cycles per second
+     */
+    public double getCyclesPerSecond() {
+        return durationNanos > 0 ? cycles / (durationNanos / 1_000_000_000.0) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s cycles of @%s in %s ms [%.0f cycles/s]", cycles, scope.getSimpleName(), getDuration(TimeUnit.MILLISECONDS),
+                getCyclesPerSecond());
+    }
+
+}
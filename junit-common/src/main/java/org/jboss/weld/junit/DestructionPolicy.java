@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.time.Duration;
+
+/**
+ * Defines how the contextual instances are destroyed when a context activated by the initiator is deactivated. By default, the instances are destroyed one
+ * after another on the thread that deactivates the context.
+ *
+ * <p>
+ * The instances of a context are independent and so they can be destroyed in parallel, e.g. if the beans have slow {@code @PreDestroy} callbacks:
+ * </p>
+ *
+ * <pre>
+ * WeldInitiator.from(Foo.class).activate(RequestScoped.class)
+ *         .setDestructionPolicy(DestructionPolicy.parallel(4, Duration.ofSeconds(5)).reportSlowerThan(Duration.ofMillis(100))).build();
+ * </pre>
+ *
+ * @see AbstractWeldInitiator.AbstractBuilder#setDestructionPolicy(DestructionPolicy)
+ * @see DestructionReport
+ * @since 2.0.2
+ */
+public final class DestructionPolicy {
+
+    private static final DestructionPolicy SEQUENTIAL = new DestructionPolicy(0, null, null);
+
+    /**
+     *
+     * @return the default policy
+     */
+    public static DestructionPolicy sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * The instances are destroyed on a bounded thread pool. The thread that deactivates the context waits for each instance at most for the given timeout,
+     * measured from the moment the destruction of the instance started. The instances which are still queued when the thread gets to them are destroyed by
+     * the thread itself. A destruction that did not complete in time is reported but not interrupted.
+     *
+     * @param threads the maximum number of threads
+     * @param timeout the timeout per instance
+     * @return a new policy
+     */
+    public static DestructionPolicy parallel(int threads, Duration timeout) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+        }
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("Invalid timeout: " + timeout);
+        }
+        return new DestructionPolicy(threads, timeout, null);
+    }
+
+    private final int threads;
+
+    private final Duration timeout;
+
+    private final Duration slowThreshold;
+
+    private DestructionPolicy(int threads, Duration timeout, Duration slowThreshold) {
+        this.threads = threads;
+        this.timeout = timeout;
+        this.slowThreshold = slowThreshold;
+    }
+
+    /**
+     * Destructions that take at least the given time are included in the {@link DestructionReport}.
+     *
+     * @param threshold
+     * @return a new policy
+     */
+    public DestructionPolicy reportSlowerThan(Duration threshold) {
+        if (threshold == null || threshold.isNegative()) {
+            throw new IllegalArgumentException("Invalid threshold: " + threshold);
+        }
+        return new DestructionPolicy(threads, timeout, threshold);
+    }
+
+    /**
+     *
+     * @return {@code true} if the instances are destroyed in parallel
+     */
+    public boolean isParallel() {
+        return threads > 0;
+    }
+
+    /**
+     *
+     * @return the maximum number of threads or {@code 0} for sequential destruction
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     *
+     * @return the timeout per instance or {@code null} for sequential destruction
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     *
+     * @return the threshold or {@code null} if slow destructions are not reported
+     */
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "DestructionPolicy [threads=" + threads + ", timeout=" + timeout + ", slowThreshold=" + slowThreshold + "]";
+    }
+
+}
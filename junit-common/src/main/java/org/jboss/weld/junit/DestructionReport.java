@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.spi.Contextual;
+
+/**
+ * Lists the slow destructions of contextual instances, i.e. the destructions that took at least the threshold set by
+ * {@link DestructionPolicy#reportSlowerThan(java.time.Duration)} and the destructions that did not complete within the timeout.
+ *
+ * @see AbstractWeldInitiator#getDestructionReport()
+ * @since 2.0.2
+ */
+public final class DestructionReport {
+
+    static final DestructionReport EMPTY = new DestructionReport(Collections.emptyList());
+
+    private final List<Entry> entries;
+
+    DestructionReport(Collection<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong((Entry e) -> e.durationNanos).reversed());
+        this.entries = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     *
+     * @return the slow destructions, the slowest first
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     *
+     * @return {@code true} if there is no slow destruction
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        if (entries.isEmpty()) {
+            return "No slow destruction";
+        }
+        StringBuilder builder = new StringBuilder("Slow destructions:");
+        for (Entry entry : entries) {
+            builder.append("\n\t").append(entry);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A single slow destruction.
+     */
+    public static final class Entry {
+
+        private final Contextual<?> contextual;
+
+        private final long durationNanos;
+
+        private final boolean timedOut;
+
+        private final Throwable failure;
+
+        Entry(Contextual<?> contextual, long durationNanos, boolean timedOut, Throwable failure) {
+            this.contextual = contextual;
+            this.durationNanos = durationNanos;
+            this.timedOut = timedOut;
+            this.failure = failure;
+        }
+
+        /**
+         *
+         * @return the contextual, usually a bean
+         */
+        public Contextual<?> getContextual() {
+            return contextual;
+        }
+
+        /**
+         *
+         * @param unit
+         * @return the duration of the destruction, or the time waited for a destruction that timed out
+         */
+        public long getDuration(TimeUnit unit) {
+            return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         *
+         * @return {@code true} if the destruction did not complete within the timeout
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         *
+         * @return the failure or {@code null}
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return contextual + ": " + getDuration(TimeUnit.MILLISECONDS) + " ms" + (timedOut ? " [timed out]" : "") + (failure != null ? " [failed: " + failure + "]" : "");
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.weld.junit.MockInterceptor.InterceptionCallback;
+
+/**
+ * An {@link InterceptionCallback} which injects latency and failures into the intercepted business methods, e.g. to test timeout, retry or bulkhead
+ * behavior of a service under slow dependency conditions:
+ *
+ * <pre>
+ * &#64;WeldSetup
+ * public WeldInitiator weld = WeldInitiator.from(Client.class, Backend.class)
+ *         .addBeans(MockInterceptor.withBindings(BackendBinding.Literal.INSTANCE)
+ *                 .injectingFaults(FaultInjector.uniformDelay(50, 200, TimeUnit.MILLISECONDS).failing(0.1, () -&gt; new IOException("Connection reset"))))
+ *         .build();
+ * </pre>
+ *
+ * <p>
+ * The delay is injected before the invocation proceeds. An injected failure is thrown after the delay and the intercepted method is not invoked at all. If
+ * the calling thread is interrupted while sleeping, the interrupt status is restored and {@link InterruptedException} is thrown.
+ * </p>
+ *
+ * <p>
+ * A fault injector is immutable except for its counters and may be shared by several interceptors.
+ * </p>
+ *
+ * @see MockInterceptor.Builder#injectingFaults(FaultInjector)
+ * @since 2.0.2
+ */
+public final class FaultInjector implements InterceptionCallback {
+
+    private static final LongSupplier NO_DELAY = () -> 0;
+
+    /**
+     *
+     * @return a fault injector which does not inject any delay
+     */
+    public static FaultInjector noDelay() {
+        return new FaultInjector(NO_DELAY, 0, null);
+    }
+
+    /**
+     *
+     * @param delay
+     * @param unit
+     * @return a fault injector which delays each invocation by the given time
+     */
+    public static FaultInjector fixedDelay(long delay, TimeUnit unit) {
+        long nanos = unit.toNanos(checkDelay(delay));
+        return new FaultInjector(() -> nanos, 0, null);
+    }
+
+    /**
+     *
+     * @param min the minimal delay, inclusive
+     * @param max the maximal delay, inclusive
+     * @param unit
+     * @return a fault injector which delays each invocation by a uniformly distributed random time
+     */
+    public static FaultInjector uniformDelay(long min, long max, TimeUnit unit) {
+        if (checkDelay(min) > checkDelay(max)) {
+            throw new IllegalArgumentException("The minimal delay must not be greater than the maximal delay: " + min + " > " + max);
+        }
+        long minNanos = unit.toNanos(min);
+        long maxNanos = unit.toNanos(max);
+        return new FaultInjector(() -> minNanos == maxNanos ? minNanos : ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1), 0, null);
+    }
+
+    /**
+     * The delays are used in the given order. When all of them are used the sequence starts again from the beginning.
+     *
+     * @param unit
+     * @param delays the recorded delays
+     * @return a fault injector which replays the given sequence of delays
+     */
+    public static FaultInjector replayedDelay(TimeUnit unit, long... delays) {
+        if (delays.length == 0) {
+            throw new IllegalArgumentException("At least one delay must be specified");
+        }
+        long[] nanos = new long[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            nanos[i] = unit.toNanos(checkDelay(delays[i]));
+        }
+        AtomicLong position = new AtomicLong();
+        return new FaultInjector(() -> nanos[(int) (position.getAndIncrement() % nanos.length)], 0, null);
+    }
+
+    /**
+     * Each delay is a random sample drawn from the distribution recorded by the given histogram, e.g. by an {@link InvocationProfiler} of a previous run.
+     * The distribution is captured when this method is called, i.e. the values recorded afterwards are not replayed.
+     *
+     * @param profile
+     * @return a fault injector which replays the given latency profile
+     */
+    public static FaultInjector replayedDelay(LatencyHistogram profile) {
+        return new FaultInjector(profile.getDistribution()::sample, 0, null);
+    }
+
+    private final LongSupplier delay;
+
+    private final double failureRate;
+
+    private final Supplier<? extends Exception> failure;
+
+    private final LongAdder invocations;
+
+    private final LongAdder failures;
+
+    private FaultInjector(LongSupplier delay, double failureRate, Supplier<? extends Exception> failure) {
+        this.delay = delay;
+        this.failureRate = failureRate;
+        this.failure = failure;
+        this.invocations = new LongAdder();
+        this.failures = new LongAdder();
+    }
+
+    /**
+     *
+     * @param rate the probability of a failure, in the range {@code 0-1}
+     * @param failure the supplier of the exception to throw
+     * @return a new fault injector with the same delay which also injects failures at the given rate
+     */
+    public FaultInjector failing(double rate, Supplier<? extends Exception> failure) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Failure rate must be in the range 0-1: " + rate);
+        }
+        return new FaultInjector(delay, rate, Objects.requireNonNull(failure));
+    }
+
+    /**
+     * An {@link IllegalStateException} is thrown for each injected failure.
+     *
+     * @param rate the probability of a failure, in the range {@code 0-1}
+     * @return a new fault injector with the same delay which also injects failures at the given rate
+     * @see #failing(double, Supplier)
+     */
+    public FaultInjector failing(double rate) {
+        return failing(rate, () -> new IllegalStateException("Injected failure"));
+    }
+
+    @Override
+    public Object invoke(InvocationContext invocationContext, Bean<?> interceptedBean) throws Exception {
+        invocations.increment();
+        long nanos = delay.getAsLong();
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+        if (failure != null && failureRate > 0 && (failureRate >= 1 || ThreadLocalRandom.current().nextDouble() < failureRate)) {
+            failures.increment();
+            throw failure.get();
+        }
+        return invocationContext.proceed();
+    }
+
+    /**
+     *
+     * @return the number of intercepted invocations
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /**
+     *
+     * @return the number of injected failures
+     */
+    public long getInjectedFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Resets the counters.
+     */
+    public void reset() {
+        invocations.reset();
+        failures.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "FaultInjector [failureRate=" + failureRate + ", invocations=" + invocations.sum() + ", failures=" + failures.sum() + "]";
+    }
+
+    private static long checkDelay(long delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must not be negative: " + delay);
+        }
+        return delay;
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.AnnotatedParameter;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.inject.spi.InjectionTarget;
+import javax.inject.Inject;
+
+import org.jboss.weld.util.reflection.Reflections;
+
+/**
+ * A precomputed plan to inject a non-contextual instance, e.g. a test class instance. The plan is created once per container and class and only covers
+ * {@code @Inject} fields and initializer methods. The injection points are resolved when the plan is created and the client proxies of normal scoped beans
+ * are reused.
+ *
+ * <p>
+ * If there is anything non-trivial about the class, e.g. an {@link InjectionPoint} metadata injection point, a delegate injection point, a resource
+ * injection or an initializer method without parameters, the {@link InjectionTarget} provided by the container is used instead.
+ * </p>
+ */
+final class InjectionPlan {
+
+    private static final Set<String> RESOURCE_ANNOTATIONS = new HashSet<>(Arrays.asList("javax.annotation.Resource", "javax.ejb.EJB",
+            "javax.persistence.PersistenceContext", "javax.persistence.PersistenceUnit", "javax.xml.ws.WebServiceRef"));
+
+    /**
+     *
+     * @param beanManager
+     * @param clazz
+     * @return a new injection plan for the given class
+     */
+    @SuppressWarnings("unchecked")
+    static InjectionPlan create(BeanManager beanManager, Class<?> clazz) {
+        // Note that the injection target is always created so that all the injection points are validated
+        InjectionTarget<Object> injectionTarget = (InjectionTarget<Object>) beanManager
+                .getInjectionTargetFactory(beanManager.createAnnotatedType(clazz)).createInjectionTarget(null);
+        List<Step> steps = createSteps(beanManager, clazz, injectionTarget.getInjectionPoints());
+        return new InjectionPlan(injectionTarget, steps);
+    }
+
+    private final InjectionTarget<Object> injectionTarget;
+
+    private final List<Step> steps;
+
+    private InjectionPlan(InjectionTarget<Object> injectionTarget, List<Step> steps) {
+        this.injectionTarget = injectionTarget;
+        this.steps = steps;
+    }
+
+    /**
+     *
+     * @param instance
+     * @param ctx
+     */
+    void inject(Object instance, CreationalContext<Object> ctx) {
+        if (steps == null) {
+            injectionTarget.inject(instance, ctx);
+            return;
+        }
+        for (Step step : steps) {
+            try {
+                step.inject(instance, ctx);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unable to inject " + step + " of " + instance, e);
+            }
+        }
+    }
+
+    private static List<Step> createSteps(BeanManager beanManager, Class<?> clazz, Set<InjectionPoint> injectionPoints) {
+        Map<Member, List<InjectionPoint>> memberToInjectionPoints = new HashMap<>();
+        for (InjectionPoint injectionPoint : injectionPoints) {
+            Member member = injectionPoint.getMember();
+            if (!isSupported(injectionPoint)) {
+                return null;
+            }
+            memberToInjectionPoints.computeIfAbsent(member, m -> new ArrayList<>()).add(injectionPoint);
+        }
+        // Fields and initializer methods declared by superclasses are injected first
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.addFirst(c);
+        }
+        List<Step> steps = new ArrayList<>(memberToInjectionPoints.size());
+        int processed = 0;
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                if (hasResourceAnnotation(field)) {
+                    return null;
+                }
+                List<InjectionPoint> fieldInjectionPoints = memberToInjectionPoints.get(field);
+                if (fieldInjectionPoints != null) {
+                    steps.add(new FieldStep(field, createValue(beanManager, fieldInjectionPoints.get(0))));
+                    processed++;
+                }
+            }
+            for (Method method : c.getDeclaredMethods()) {
+                if (hasResourceAnnotation(method)) {
+                    return null;
+                }
+                if (method.getParameterCount() == 0 && method.isAnnotationPresent(Inject.class)) {
+                    // An initializer method without parameters has no injection point, let the container handle the injection
+                    return null;
+                }
+                List<InjectionPoint> methodInjectionPoints = memberToInjectionPoints.get(method);
+                if (methodInjectionPoints != null) {
+                    Value[] values = new Value[method.getParameterCount()];
+                    for (InjectionPoint injectionPoint : methodInjectionPoints) {
+                        values[((AnnotatedParameter<?>) injectionPoint.getAnnotated()).getPosition()] = createValue(beanManager, injectionPoint);
+                    }
+                    steps.add(new MethodStep(method, values));
+                    processed++;
+                }
+            }
+        }
+        if (processed != memberToInjectionPoints.size()) {
+            // Some injection points were not matched, let the container handle the injection
+            return null;
+        }
+        return steps.isEmpty() ? Collections.emptyList() : steps;
+    }
+
+    private static boolean isSupported(InjectionPoint injectionPoint) {
+        Member member = injectionPoint.getMember();
+        if (Modifier.isStatic(member.getModifiers()) || injectionPoint.isDelegate()) {
+            return false;
+        }
+        if (InjectionPoint.class.equals(Reflections.getRawType(injectionPoint.getType()))) {
+            return false;
+        }
+        if (member instanceof Field) {
+            return true;
+        }
+        return member instanceof Method && injectionPoint.getAnnotated() instanceof AnnotatedParameter;
+    }
+
+    private static boolean hasResourceAnnotation(AccessibleObject element) {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (RESOURCE_ANNOTATIONS.contains(annotation.annotationType().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Value createValue(BeanManager beanManager, InjectionPoint injectionPoint) {
+        Bean<?> bean = beanManager.resolve(beanManager.getBeans(injectionPoint.getType(),
+                injectionPoint.getQualifiers().toArray(new Annotation[injectionPoint.getQualifiers().size()])));
+        if (bean != null && beanManager.isNormalScope(bean.getScope())) {
+            // The client proxy can be reused
+            Object proxy = beanManager.getReference(bean, injectionPoint.getType(), beanManager.createCreationalContext(bean));
+            return ctx -> proxy;
+        }
+        return ctx -> beanManager.getInjectableReference(injectionPoint, ctx);
+    }
+
+    private static <T extends AccessibleObject> T makeAccessible(T element) {
+        if (!element.isAccessible()) {
+            AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+                element.setAccessible(true);
+                return null;
+            });
+        }
+        return element;
+    }
+
+    @FunctionalInterface
+    private interface Value {
+
+        Object get(CreationalContext<?> ctx);
+
+    }
+
+    private interface Step {
+
+        void inject(Object instance, CreationalContext<?> ctx) throws Throwable;
+
+    }
+
+    private static final class FieldStep implements Step {
+
+        private final Field field;
+
+        private final MethodHandle setter;
+
+        private final Value value;
+
+        FieldStep(Field field, Value value) {
+            this.field = field;
+            this.value = value;
+            try {
+                this.setter = MethodHandles.lookup().unreflectSetter(makeAccessible(field))
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void inject(Object instance, CreationalContext<?> ctx) throws Throwable {
+            setter.invokeExact(instance, value.get(ctx));
+        }
+
+        @Override
+        public String toString() {
+            return field.toString();
+        }
+
+    }
+
+    private static final class MethodStep implements Step {
+
+        private final Method method;
+
+        private final MethodHandle initializer;
+
+        private final Value[] values;
+
+        MethodStep(Method method, Value[] values) {
+            this.method = method;
+            this.values = values;
+            try {
+                this.initializer = MethodHandles.lookup().unreflect(makeAccessible(method)).asSpreader(Object[].class, values.length)
+                        .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void inject(Object instance, CreationalContext<?> ctx) throws Throwable {
+            Object[] args = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                args[i] = values[i].get(ctx);
+            }
+            initializer.invokeExact(instance, args);
+        }
+
+        @Override
+        public String toString() {
+            return method.toString();
+        }
+
+    }
+
+}
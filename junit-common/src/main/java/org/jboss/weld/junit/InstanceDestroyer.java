@@ -0,0 +1,221 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jboss.weld.junit.ContextImpl.ContextualInstance;
+
+/**
+ * Destroys contextual instances according to a {@link DestructionPolicy} and collects the slow destructions.
+ */
+final class InstanceDestroyer {
+
+    private static final Logger LOGGER = Logger.getLogger(InstanceDestroyer.class.getName());
+
+    private final long timeoutNanos;
+
+    private final long thresholdNanos;
+
+    private final int threads;
+
+    private final Queue<DestructionReport.Entry> slowDestructions;
+
+    // The executor is created lazily because the extension may be reused for several containers
+    private ThreadPoolExecutor executor;
+
+    InstanceDestroyer(DestructionPolicy policy) {
+        this.timeoutNanos = policy.isParallel() ? policy.getTimeout().toNanos() : 0;
+        this.thresholdNanos = policy.getSlowThreshold() != null ? policy.getSlowThreshold().toNanos() : -1;
+        this.threads = policy.isParallel() ? policy.getThreads() : 0;
+        this.slowDestructions = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * The instances are destroyed in parallel if the policy says so. In that case the state of the given context bound to the current thread is also bound
+     * to the worker threads so that a {@code @PreDestroy} callback may use other beans in the same scope.
+     * <p>
+     * The current thread waits for each instance at most for the timeout measured from the moment its destruction started. An instance whose destruction
+     * did not start yet is destroyed on the current thread, i.e. no instance is left behind. A destruction that did not complete in time is reported but
+     * not interrupted.
+     *
+     * @param instances
+     * @param context the context the instances belong to or {@code null} if there is no state to propagate
+     */
+    void destroy(Collection<ContextualInstance<?>> instances, ContextImpl context) {
+        if (instances.isEmpty()) {
+            return;
+        }
+        if (threads == 0 || instances.size() == 1) {
+            for (ContextualInstance<?> instance : instances) {
+                destroy(instance);
+            }
+            return;
+        }
+        Object state = context != null ? context.capture() : null;
+        ThreadPoolExecutor executor = getExecutor();
+        List<DestructionTask> tasks = new ArrayList<>(instances.size());
+        for (ContextualInstance<?> instance : instances) {
+            DestructionTask task = new DestructionTask(instance, context, state);
+            tasks.add(task);
+            executor.execute(task);
+        }
+        boolean interrupted = false;
+        for (DestructionTask task : tasks) {
+            if (task.claim()) {
+                // Not started by a worker yet - the state is already bound to the current thread
+                task.destroy();
+                continue;
+            }
+            if (interrupted) {
+                continue;
+            }
+            try {
+                if (!task.done.await(task.start.get() + timeoutNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    LOGGER.warning("Destruction of instance " + task.instance.get() + " for bean: " + task.instance.getContextual() + " did not complete in time");
+                    slowDestructions.add(new DestructionReport.Entry(task.instance.getContextual(), System.nanoTime() - task.start.get(), true, null));
+                }
+            } catch (InterruptedException e) {
+                // Stop waiting but still destroy the instances which were not started yet
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Terminates the idle worker threads, if any. The destructions in progress are not interrupted. A new executor is created if needed.
+     */
+    synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     *
+     * @return the report of slow destructions collected so far
+     */
+    DestructionReport getReport() {
+        return slowDestructions.isEmpty() ? DestructionReport.EMPTY : new DestructionReport(slowDestructions);
+    }
+
+    void clearReport() {
+        slowDestructions.clear();
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            AtomicInteger sequence = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "weld-junit-destroyer-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private void destroy(ContextualInstance<?> instance) {
+        long start = thresholdNanos >= 0 ? System.nanoTime() : 0;
+        Throwable failure = null;
+        try {
+            instance.destroy();
+        } catch (Exception e) {
+            failure = e;
+            LOGGER.warning("Unable to destroy instance" + instance.get() + " for bean: " + instance.getContextual());
+        }
+        if (thresholdNanos >= 0) {
+            long duration = System.nanoTime() - start;
+            if (duration >= thresholdNanos) {
+                slowDestructions.add(new DestructionReport.Entry(instance.getContextual(), duration, false, failure));
+            }
+        }
+    }
+
+    /**
+     * A destruction is started either by a worker thread or by the thread waiting for the destructions, whichever claims it first.
+     */
+    private final class DestructionTask implements Runnable {
+
+        private static final long NOT_STARTED = Long.MIN_VALUE;
+
+        private final ContextualInstance<?> instance;
+
+        private final ContextImpl context;
+
+        private final Object state;
+
+        // The time when the destruction started
+        private final AtomicLong start;
+
+        private final CountDownLatch done;
+
+        DestructionTask(ContextualInstance<?> instance, ContextImpl context, Object state) {
+            this.instance = instance;
+            this.context = context;
+            this.state = state;
+            this.start = new AtomicLong(NOT_STARTED);
+            this.done = new CountDownLatch(1);
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+            Object previous = state != null ? context.attach(state) : null;
+            try {
+                destroy();
+            } finally {
+                if (state != null) {
+                    context.attach(previous);
+                }
+            }
+        }
+
+        boolean claim() {
+            long now = System.nanoTime();
+            return start.compareAndSet(NOT_STARTED, now == NOT_STARTED ? now + 1 : now);
+        }
+
+        void destroy() {
+            try {
+                InstanceDestroyer.this.destroy(instance);
+            } finally {
+                done.countDown();
+            }
+        }
+
+    }
+
+}
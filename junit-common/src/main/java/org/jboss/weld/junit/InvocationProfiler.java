@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.weld.junit.MockInterceptor.InterceptionCallback;
+
+/**
+ * An {@link InterceptionCallback} which records the call count and latency distribution of each intercepted business method:
+ *
+ * <pre>
+ * static final InvocationProfiler PROFILER = new InvocationProfiler();
+ *
+ * &#64;WeldSetup
+ * public WeldInitiator weld = WeldInitiator.from(Foo.class).addBeans(MockInterceptor.withBindings(FooBinding.Literal.INSTANCE).profiling(PROFILER)).build();
+ *
+ * &#64;Test
+ * public void testLatencyBudget() {
+ *     // Invoke Foo...
+ *     assertTrue(PROFILER.getHistogram(Foo.class, "ping").getPercentile(99, TimeUnit.MILLISECONDS) &lt; 10);
+ * }
+ * </pre>
+ *
+ * <p>
+ * The histograms are never discarded automatically. Use {@link #reset()} to start a new measurement, e.g. for each test.
+ * </p>
+ *
+ * @see MockInterceptor.Builder#profiling(InvocationProfiler)
+ * @see LatencyHistogram
+ * @since 2.0.2
+ */
+public class InvocationProfiler implements InterceptionCallback {
+
+    private final ConcurrentMap<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(InvocationContext invocationContext, Bean<?> interceptedBean) throws Exception {
+        Method method = invocationContext.getMethod();
+        if (method == null) {
+            // Lifecycle callback interception
+            return invocationContext.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return invocationContext.proceed();
+        } finally {
+            long duration = System.nanoTime() - start;
+            LatencyHistogram histogram = histograms.get(method);
+            if (histogram == null) {
+                histogram = histograms.computeIfAbsent(method, m -> new LatencyHistogram());
+            }
+            histogram.record(duration);
+        }
+    }
+
+    /**
+     *
+     * @param method
+     * @return the histogram for the given method or {@code null} if the method was never invoked
+     */
+    public LatencyHistogram getHistogram(Method method) {
+        return histograms.get(method);
+    }
+
+    /**
+     * The histograms of all the methods with the given name declared by the given class or its superclasses are merged.
+     *
+     * @param beanClass
+     * @param methodName
+     * @return the histogram for the given method or {@code null} if no such method was invoked
+     */
+    public LatencyHistogram getHistogram(Class<?> beanClass, String methodName) {
+        List<LatencyHistogram> found = new ArrayList<>();
+        for (Map.Entry<Method, LatencyHistogram> entry : histograms.entrySet()) {
+            Method method = entry.getKey();
+            if (method.getName().equals(methodName) && method.getDeclaringClass().isAssignableFrom(beanClass)) {
+                found.add(entry.getValue());
+            }
+        }
+        if (found.isEmpty()) {
+            return null;
+        }
+        return found.size() == 1 ? found.get(0) : merge(found);
+    }
+
+    /**
+     *
+     * @return an immutable snapshot of all the recorded histograms
+     */
+    public Map<Method, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(new ConcurrentHashMap<>(histograms));
+    }
+
+    /**
+     * Discards all the recorded histograms.
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * The methods are sorted by the total time spent, the slowest first.
+     *
+     * @return a human-readable report
+     */
+    public String getReport() {
+        List<Map.Entry<Method, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<Method, LatencyHistogram> e) -> e.getValue().getTotal(TimeUnit.NANOSECONDS)).reversed());
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<Method, LatencyHistogram> entry : entries) {
+            Method method = entry.getKey();
+            report.append(method.getDeclaringClass().getSimpleName()).append('#').append(method.getName()).append(": ").append(entry.getValue())
+                    .append('\n');
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+
+    private static LatencyHistogram merge(List<LatencyHistogram> histograms) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            merged.add(histogram);
+        }
+        return merged;
+    }
+
+}
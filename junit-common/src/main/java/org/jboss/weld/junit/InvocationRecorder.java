@@ -0,0 +1,570 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.weld.junit.MockInterceptor.InterceptionCallback;
+
+/**
+ * An {@link InterceptionCallback} which records the intercepted business method invocations. The invocations are stored in a bounded lock-free ring buffer,
+ * i.e. concurrent callers are never serialized and if the buffer is full the oldest invocations are overwritten.
+ *
+ * <pre>
+ * static final InvocationRecorder RECORDER = InvocationRecorder.builder().capacity(1024).recordArguments().build();
+ *
+ * &#64;WeldSetup
+ * public WeldInitiator weld = WeldInitiator.from(Foo.class).addBeans(MockInterceptor.withBindings(FooBinding.Literal.INSTANCE).recording(RECORDER)).build();
+ *
+ * &#64;Test
+ * public void testCalls() {
+ *     // Invoke Foo concurrently...
+ *     RECORDER.assertInvoked(Foo.class, "ping", 10);
+ * }
+ * </pre>
+ *
+ * <p>
+ * For long running stress tests the invocations may also be spilled to a memory-mapped file, see {@link Builder#spillTo(Path, int)}. Each spilled
+ * invocation is stored as a fixed-size record of {@value #SPILL_RECORD_SIZE} bytes at the position given by its sequence number: the sequence number plus
+ * one (zero means the record is not stored yet), the start time, the duration and the thread id ({@code long} values), the method id and the flags
+ * ({@code int} values, bit 0 is set if the invocation failed). The method ids can be obtained via {@link #getMethodIds()}.
+ * </p>
+ *
+ * @see MockInterceptor.Builder#recording(InvocationRecorder)
+ * @since 2.0.2
+ */
+public final class InvocationRecorder implements InterceptionCallback, AutoCloseable {
+
+    /**
+     * The size of a spilled invocation record in bytes.
+     */
+    public static final int SPILL_RECORD_SIZE = 40;
+
+    /**
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final AtomicReferenceArray<Invocation> buffer;
+
+    private final int mask;
+
+    private final AtomicLong sequence;
+
+    private final boolean recordArguments;
+
+    private final Map<Method, Integer> methodIds;
+
+    private final AtomicInteger nextMethodId;
+
+    private final FileChannel spillChannel;
+
+    private final MappedByteBuffer spillBuffer;
+
+    private final int spillCapacity;
+
+    private volatile boolean closed;
+
+    private InvocationRecorder(int capacity, boolean recordArguments, Path spillFile, int spillCapacity) {
+        // Round up to a power of two so that the index can be computed with a mask
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.sequence = new AtomicLong();
+        this.recordArguments = recordArguments;
+        this.methodIds = new ConcurrentHashMap<>();
+        this.nextMethodId = new AtomicInteger();
+        this.spillCapacity = spillCapacity;
+        if (spillFile != null) {
+            try {
+                this.spillChannel = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                this.spillBuffer = spillChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) spillCapacity * SPILL_RECORD_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to map the spill file: " + spillFile, e);
+            }
+        } else {
+            this.spillChannel = null;
+            this.spillBuffer = null;
+        }
+    }
+
+    @Override
+    public Object invoke(InvocationContext invocationContext, Bean<?> interceptedBean) throws Exception {
+        Method method = invocationContext.getMethod();
+        if (method == null) {
+            // Lifecycle callback interception
+            return invocationContext.proceed();
+        }
+        Object[] arguments = recordArguments ? invocationContext.getParameters() : null;
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invocationContext.proceed();
+            failed = false;
+            return result;
+        } finally {
+            record(interceptedBean, method, arguments, start, System.nanoTime() - start, failed);
+        }
+    }
+
+    private void record(Bean<?> bean, Method method, Object[] arguments, long start, long duration, boolean failed) {
+        long seq = sequence.getAndIncrement();
+        Thread thread = Thread.currentThread();
+        buffer.set((int) (seq & mask), new Invocation(seq, bean, method, arguments, thread.getName(), thread.getId(), start, duration, failed));
+        if (spillBuffer != null && seq < spillCapacity && !closed) {
+            // Each record has its own region, so no synchronization is needed
+            int position = (int) seq * SPILL_RECORD_SIZE;
+            spillBuffer.putLong(position + 8, start);
+            spillBuffer.putLong(position + 16, duration);
+            spillBuffer.putLong(position + 24, thread.getId());
+            spillBuffer.putInt(position + 32, getMethodId(method));
+            spillBuffer.putInt(position + 36, failed ? 1 : 0);
+            // The marker does not guarantee that other threads see the fields of the record, see forEachSpilled()
+            spillBuffer.putLong(position, seq + 1);
+        }
+    }
+
+    private int getMethodId(Method method) {
+        Integer id = methodIds.get(method);
+        if (id == null) {
+            id = methodIds.computeIfAbsent(method, m -> nextMethodId.getAndIncrement());
+        }
+        return id;
+    }
+
+    /**
+     * The invocations which were already overwritten or which are not completely stored yet are not included.
+     *
+     * @return a snapshot of the recorded invocations, ordered by the sequence number
+     */
+    public List<Invocation> getInvocations() {
+        long last = sequence.get();
+        long first = Math.max(0, last - buffer.length());
+        List<Invocation> invocations = new ArrayList<>((int) (last - first));
+        for (long seq = first; seq < last; seq++) {
+            Invocation invocation = buffer.get((int) (seq & mask));
+            if (invocation != null && invocation.sequence == seq) {
+                invocations.add(invocation);
+            }
+        }
+        return invocations;
+    }
+
+    /**
+     *
+     * @param predicate
+     * @return a snapshot of the recorded invocations matching the given predicate, ordered by the sequence number
+     */
+    public List<Invocation> getInvocations(Predicate<Invocation> predicate) {
+        List<Invocation> invocations = getInvocations();
+        invocations.removeIf(predicate.negate());
+        return invocations;
+    }
+
+    /**
+     *
+     * @param beanClass
+     * @param methodName
+     * @return a snapshot of the recorded invocations of the given method, ordered by the sequence number
+     */
+    public List<Invocation> getInvocations(Class<?> beanClass, String methodName) {
+        return getInvocations(i -> i.matches(beanClass, methodName));
+    }
+
+    /**
+     *
+     * @return the total number of invocations, including the overwritten ones
+     */
+    public long getTotalCount() {
+        return sequence.get();
+    }
+
+    /**
+     *
+     * @return the number of invocations which were overwritten
+     */
+    public long getOverwrittenCount() {
+        return Math.max(0, sequence.get() - buffer.length());
+    }
+
+    /**
+     * The intervals of the recorded invocations are compared, i.e. the overwritten invocations are not taken into account.
+     *
+     * @param beanClass
+     * @param methodName
+     * @return the maximal number of invocations of the given method which were in progress at the same time
+     */
+    public int getMaxConcurrency(Class<?> beanClass, String methodName) {
+        List<Invocation> invocations = getInvocations(beanClass, methodName);
+        long[] starts = new long[invocations.size()];
+        long[] ends = new long[invocations.size()];
+        for (int i = 0; i < starts.length; i++) {
+            Invocation invocation = invocations.get(i);
+            starts[i] = invocation.start;
+            ends[i] = invocation.start + invocation.duration;
+        }
+        return getMaxConcurrency(starts, ends);
+    }
+
+    /**
+     * An interval that ends when another one starts does not overlap with it. An interval of zero length is treated as if it lasted one nanosecond.
+     *
+     * @param starts the start times, sorted in place
+     * @param ends the end times, sorted in place
+     * @return the maximal number of intervals which overlap
+     */
+    static int getMaxConcurrency(long[] starts, long[] ends) {
+        for (int i = 0; i < starts.length; i++) {
+            // Otherwise the end of a zero-duration interval would be consumed before its start
+            ends[i] = Math.max(ends[i], starts[i] + 1);
+        }
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+        int max = 0;
+        int current = 0;
+        for (int i = 0, j = 0; i < starts.length;) {
+            // On a tie the end is consumed first so that back-to-back invocations are not counted as concurrent
+            if (j == ends.length || starts[i] < ends[j]) {
+                current++;
+                i++;
+                max = Math.max(max, current);
+            } else {
+                current--;
+                j++;
+            }
+        }
+        return max;
+    }
+
+    /**
+     *
+     * @param beanClass
+     * @param methodName
+     * @param times
+     * @throws AssertionError if the given method was not invoked exactly the given number of times
+     */
+    public void assertInvoked(Class<?> beanClass, String methodName, int times) {
+        int actual = getInvocations(beanClass, methodName).size();
+        if (actual != times) {
+            throw new AssertionError(String.format("Expected %s invocations of %s#%s but was %s", times, beanClass.getName(), methodName, actual));
+        }
+    }
+
+    /**
+     *
+     * @param beanClass
+     * @param methodName
+     * @throws AssertionError if the given method was invoked
+     */
+    public void assertNotInvoked(Class<?> beanClass, String methodName) {
+        assertInvoked(beanClass, methodName, 0);
+    }
+
+    /**
+     *
+     * @param beanClass
+     * @param methodName
+     * @param maxConcurrency
+     * @throws AssertionError if more than the given number of invocations of the given method were in progress at the same time
+     * @see #getMaxConcurrency(Class, String)
+     */
+    public void assertMaxConcurrency(Class<?> beanClass, String methodName, int maxConcurrency) {
+        int actual = getMaxConcurrency(beanClass, methodName);
+        if (actual > maxConcurrency) {
+            throw new AssertionError(String.format("Expected at most %s concurrent invocations of %s#%s but was %s", maxConcurrency, beanClass.getName(),
+                    methodName, actual));
+        }
+    }
+
+    /**
+     *
+     * @return an immutable snapshot of the method ids used in the spill file
+     */
+    public Map<Method, Integer> getMethodIds() {
+        return Collections.unmodifiableMap(new ConcurrentHashMap<>(methodIds));
+    }
+
+    /**
+     * Reads the invocations spilled so far. The bean, the arguments and the thread name are not spilled and so the relevant methods of the invocations
+     * return {@code null}.
+     * <p>
+     * The records are written with plain memory writes. The result is only consistent once all the intercepted invocations have completed and the
+     * threads that executed them were joined (or the recorder was closed), e.g. after the executor running a stress test was terminated. A record
+     * written concurrently may be skipped or read partially.
+     *
+     * @param consumer
+     * @throws IllegalStateException if no spill file is configured
+     */
+    public void forEachSpilled(Consumer<Invocation> consumer) {
+        if (spillBuffer == null) {
+            throw new IllegalStateException("No spill file configured");
+        }
+        Method[] methods = new Method[nextMethodId.get()];
+        for (Map.Entry<Method, Integer> entry : methodIds.entrySet()) {
+            methods[entry.getValue()] = entry.getKey();
+        }
+        long count = Math.min(sequence.get(), spillCapacity);
+        for (int i = 0; i < count; i++) {
+            int position = i * SPILL_RECORD_SIZE;
+            if (spillBuffer.getLong(position) != i + 1) {
+                // Not completely stored yet
+                continue;
+            }
+            int methodId = spillBuffer.getInt(position + 32);
+            if (methodId >= methods.length) {
+                continue;
+            }
+            consumer.accept(new Invocation(i, null, methods[methodId], null, null, spillBuffer.getLong(position + 24), spillBuffer.getLong(position + 8),
+                    spillBuffer.getLong(position + 16), (spillBuffer.getInt(position + 36) & 1) != 0));
+        }
+    }
+
+    /**
+     * Discards all the recorded invocations. Note that the sequence number is not reset and so the invocations spilled before are kept.
+     */
+    public void reset() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    /**
+     * Flushes and closes the spill file, if configured. No more invocations are spilled afterwards.
+     */
+    @Override
+    public void close() {
+        if (spillChannel != null && !closed) {
+            closed = true;
+            spillBuffer.force();
+            try {
+                spillChannel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InvocationRecorder [capacity=" + buffer.length() + ", total=" + sequence.get() + "]";
+    }
+
+    /**
+     * A recorded invocation.
+     */
+    public static final class Invocation {
+
+        private final long sequence;
+
+        private final Bean<?> bean;
+
+        private final Method method;
+
+        private final Object[] arguments;
+
+        private final String threadName;
+
+        private final long threadId;
+
+        private final long start;
+
+        private final long duration;
+
+        private final boolean failed;
+
+        Invocation(long sequence, Bean<?> bean, Method method, Object[] arguments, String threadName, long threadId, long start, long duration,
+                boolean failed) {
+            this.sequence = sequence;
+            this.bean = bean;
+            this.method = method;
+            this.arguments = arguments;
+            this.threadName = threadName;
+            this.threadId = threadId;
+            this.start = start;
+            this.duration = duration;
+            this.failed = failed;
+        }
+
+        /**
+         *
+         * @return the sequence number
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         *
+         * @return the intercepted bean, might be {@code null}
+         */
+        public Bean<?> getBean() {
+            return bean;
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         *
+         * @return the arguments or {@code null} if arguments are not recorded
+         * @see Builder#recordArguments()
+         */
+        public Object[] getArguments() {
+            return arguments;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        /**
+         *
+         * @return the start time as returned by {@link System#nanoTime()}
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         *
+         * @param unit
+         * @return the duration in the given time unit
+         */
+        public long getDuration(TimeUnit unit) {
+            return unit.convert(duration, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         *
+         * @return {@code true} if the invocation completed abruptly
+         */
+        public boolean isFailed() {
+            return failed;
+        }
+
+        boolean matches(Class<?> beanClass, String methodName) {
+            return method.getName().equals(methodName) && method.getDeclaringClass().isAssignableFrom(beanClass);
+        }
+
+        @Override
+        public String toString() {
+            return "Invocation [sequence=" + sequence + ", method=" + method.getDeclaringClass().getSimpleName() + "#" + method.getName() + ", thread="
+                    + threadName + ", duration=" + duration + "ns" + (failed ? ", failed" : "") + "]";
+        }
+
+    }
+
+    /**
+     * A builder of {@link InvocationRecorder}.
+     */
+    public static final class Builder {
+
+        private int capacity;
+
+        private boolean recordArguments;
+
+        private Path spillFile;
+
+        private int spillCapacity;
+
+        private Builder() {
+            this.capacity = 1024;
+        }
+
+        /**
+         * The capacity is rounded up to the nearest power of two. The default value is {@code 1024}.
+         *
+         * @param capacity the maximal number of recorded invocations
+         * @return self
+         */
+        public Builder capacity(int capacity) {
+            if (capacity < 1 || capacity > 1 << 30) {
+                throw new IllegalArgumentException("Capacity must be in the range 1-2^30: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * The arguments are not copied, i.e. the recorded invocation holds references to the argument instances.
+         *
+         * @return self
+         */
+        public Builder recordArguments() {
+            this.recordArguments = true;
+            return this;
+        }
+
+        /**
+         * The file is created or truncated and mapped into memory when the recorder is built. Once the given number of invocations is spilled, the
+         * subsequent invocations are only kept in the ring buffer.
+         *
+         * @param file
+         * @param maxInvocations the maximal number of spilled invocations
+         * @return self
+         * @see InvocationRecorder#close()
+         */
+        public Builder spillTo(Path file, int maxInvocations) {
+            if (maxInvocations < 1 || maxInvocations > Integer.MAX_VALUE / SPILL_RECORD_SIZE) {
+                throw new IllegalArgumentException("Max invocations must be in the range 1-" + Integer.MAX_VALUE / SPILL_RECORD_SIZE + ": " + maxInvocations);
+            }
+            this.spillFile = file;
+            this.spillCapacity = maxInvocations;
+            return this;
+        }
+
+        /**
+         *
+         * @return a new recorder
+         */
+        public InvocationRecorder build() {
+            return new InvocationRecorder(capacity, recordArguments, spillFile, spillCapacity);
+        }
+
+    }
+
+}
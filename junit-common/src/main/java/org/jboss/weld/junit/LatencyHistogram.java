@@ -0,0 +1,272 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds. The values are counted in log-linear buckets, i.e. each power of two is divided into
+ * 32 linear sub-buckets, and so the relative error of a percentile is at most ~3%. Recording a value never blocks concurrent callers.
+ *
+ * @since 2.0.2
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Values lower than SUB_BUCKETS are counted exactly, then one set of sub-buckets per power of two up to 2^62
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+
+    private final LongAdder count;
+
+    private final LongAdder total;
+
+    private final LongAccumulator min;
+
+    private final LongAccumulator max;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     *
+     * @param nanos the latency in nanoseconds, negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        total.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    /**
+     *
+     * @param duration
+     * @param unit
+     */
+    public void record(long duration, TimeUnit unit) {
+        record(unit.toNanos(duration));
+    }
+
+    /**
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     *
+     * @param unit
+     * @return the sum of all recorded values in the given time unit
+     */
+    public long getTotal(TimeUnit unit) {
+        return unit.convert(total.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     *
+     * @param unit
+     * @return the minimal recorded value in the given time unit or zero if no value was recorded
+     */
+    public long getMin(TimeUnit unit) {
+        long value = min.get();
+        return value == Long.MAX_VALUE ? 0 : unit.convert(value, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     *
+     * @param unit
+     * @return the maximal recorded value in the given time unit
+     */
+    public long getMax(TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     *
+     * @param unit
+     * @return the mean value in the given time unit
+     */
+    public double getMean(TimeUnit unit) {
+        long count = getCount();
+        return count > 0 ? (double) total.sum() / count / unit.toNanos(1) : 0;
+    }
+
+    /**
+     * The result is the upper bound of the bucket the percentile falls into, but never more than the maximal recorded value.
+     *
+     * @param percentile the percentile, e.g. {@code 99.9}
+     * @param unit
+     * @return the value at the given percentile in the given time unit
+     * @throws IllegalArgumentException if the percentile is not in the range {@code 0-100}
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in the range 0-100: " + percentile);
+        }
+        long count = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= rank) {
+                return unit.convert(Math.min(upperBoundOf(i), max.get()), TimeUnit.NANOSECONDS);
+            }
+        }
+        return getMax(unit);
+    }
+
+    /**
+     * Takes a snapshot of the recorded values. Unlike {@link #getPercentile(double, TimeUnit)}, the snapshot may be sampled repeatedly without scanning
+     * all the buckets.
+     *
+     * @return the cumulative distribution of the values recorded so far
+     */
+    Distribution getDistribution() {
+        long[] values = new long[BUCKETS];
+        long[] cumulative = new long[BUCKETS];
+        long maxValue = max.get();
+        long count = 0;
+        int size = 0;
+        // Only the non-empty buckets are kept so that the cumulative counts are strictly increasing
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount > 0) {
+                count += bucketCount;
+                values[size] = Math.min(upperBoundOf(i), maxValue);
+                cumulative[size] = count;
+                size++;
+            }
+        }
+        return new Distribution(Arrays.copyOf(values, size), Arrays.copyOf(cumulative, size));
+    }
+
+    /**
+     * Adds all the values recorded by the given histogram.
+     *
+     * @param other
+     */
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount > 0) {
+                counts.addAndGet(i, bucketCount);
+            }
+        }
+        count.add(other.count.sum());
+        total.add(other.total.sum());
+        min.accumulate(other.min.get());
+        max.accumulate(other.max.get());
+    }
+
+    /**
+     * Removes all the recorded values. Note that the values recorded concurrently may be partially retained.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        min.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%s, mean=%.1f us, p50=%s us, p99=%s us, max=%s us", getCount(), getMean(TimeUnit.NANOSECONDS) / 1000,
+                getPercentile(50, TimeUnit.MICROSECONDS), getPercentile(99, TimeUnit.MICROSECONDS), getMax(TimeUnit.MICROSECONDS));
+    }
+
+    /**
+     * An immutable cumulative distribution of recorded values.
+     */
+    static final class Distribution {
+
+        // The values are bucket upper bounds in nanoseconds
+        private final long[] values;
+
+        private final long[] cumulative;
+
+        private Distribution(long[] values, long[] cumulative) {
+            this.values = values;
+            this.cumulative = cumulative;
+        }
+
+        /**
+         *
+         * @return a random value drawn from the distribution in nanoseconds or zero if no value was recorded
+         */
+        long sample() {
+            if (values.length == 0) {
+                return 0;
+            }
+            long rank = 1 + ThreadLocalRandom.current().nextLong(cumulative[cumulative.length - 1]);
+            int index = Arrays.binarySearch(cumulative, rank);
+            // Not found - the insertion point is the first bucket whose cumulative count is greater than the rank
+            return values[index >= 0 ? index : -index - 1];
+        }
+
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowerBound = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+}
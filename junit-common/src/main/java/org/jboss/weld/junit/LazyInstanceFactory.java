@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import javax.enterprise.context.spi.CreationalContext;
+
+import org.jboss.weld.environment.se.WeldContainer;
+import org.jboss.weld.junit.MockBean.CreateFunction;
+
+/**
+ * Obtains the bean instance from a supplier when {@link javax.enterprise.inject.spi.Bean#create(CreationalContext)} is invoked for the first time. The
+ * instance is memoized per container, i.e. each container uses a single instance.
+ *
+ * @param <T>
+ * @see MockBean.Builder#creatingLazily(Supplier)
+ */
+final class LazyInstanceFactory<T> implements CreateFunction<T>, ContainerShutdownAware {
+
+    private final Supplier<T> supplier;
+
+    // Container id -> instance
+    private final ConcurrentMap<String, T> instances;
+
+    // The ids of the containers the supplier was invoked for, kept after shutdown so that the report is still available
+    private final Set<String> materialized;
+
+    LazyInstanceFactory(Supplier<T> supplier) {
+        this.supplier = supplier;
+        this.instances = new ConcurrentHashMap<>();
+        this.materialized = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public T create(CreationalContext<T> creationalContext) {
+        return instances.computeIfAbsent(WeldContainer.current().getId(), id -> {
+            T instance = supplier.get();
+            if (instance == null) {
+                throw new IllegalStateException("Supplier of a lazy mock bean must not return null: " + supplier);
+            }
+            materialized.add(id);
+            return instance;
+        });
+    }
+
+    @Override
+    public void containerShutdown(String containerId) {
+        instances.remove(containerId);
+    }
+
+    /**
+     *
+     * @param containerId
+     * @return {@code true} if the supplier was invoked for the given container
+     */
+    boolean isMaterialized(String containerId) {
+        return containerId != null && materialized.contains(containerId);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.lang.annotation.Annotation;
+
+import javax.enterprise.context.Destroyed;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Event;
+import javax.enterprise.inject.spi.BeanManager;
+
+/**
+ * Fires the {@link Initialized} and {@link Destroyed} events for a scope. The event objects are created lazily and reused so that the observer resolution
+ * performed by the container is cached. If there is no observer method to notify the events may be skipped completely.
+ */
+final class LifecycleEvents {
+
+    private final BeanManager beanManager;
+
+    private final Class<? extends Annotation> scope;
+
+    private final boolean skipUnobserved;
+
+    private volatile CachedEvent initialized;
+
+    private volatile CachedEvent destroyed;
+
+    /**
+     *
+     * @param beanManager
+     * @param scope
+     * @param skipUnobserved if set to {@code true} the events are not fired if there is no observer method to notify
+     */
+    LifecycleEvents(BeanManager beanManager, Class<? extends Annotation> scope, boolean skipUnobserved) {
+        this.beanManager = beanManager;
+        this.scope = scope;
+        this.skipUnobserved = skipUnobserved;
+    }
+
+    void fireInitialized() {
+        initialized().fire(skipUnobserved);
+    }
+
+    void fireDestroyed() {
+        destroyed().fire(skipUnobserved);
+    }
+
+    /**
+     *
+     * @param skipUnobserved
+     */
+    void fireInitialized(boolean skipUnobserved) {
+        initialized().fire(skipUnobserved);
+    }
+
+    /**
+     *
+     * @param skipUnobserved
+     */
+    void fireDestroyed(boolean skipUnobserved) {
+        destroyed().fire(skipUnobserved);
+    }
+
+    private CachedEvent initialized() {
+        CachedEvent event = initialized;
+        if (event == null) {
+            // A race is harmless - both event objects are equivalent
+            event = new CachedEvent(beanManager, Initialized.Literal.of(scope));
+            initialized = event;
+        }
+        return event;
+    }
+
+    private CachedEvent destroyed() {
+        CachedEvent event = destroyed;
+        if (event == null) {
+            event = new CachedEvent(beanManager, Destroyed.Literal.of(scope));
+            destroyed = event;
+        }
+        return event;
+    }
+
+    private static final class CachedEvent {
+
+        private final Event<Object> event;
+
+        private final boolean observed;
+
+        CachedEvent(BeanManager beanManager, Annotation qualifier) {
+            this.event = beanManager.getEvent().select(qualifier);
+            this.observed = !beanManager.resolveObserverMethods(new Object(), qualifier).isEmpty();
+        }
+
+        void fire(boolean skipUnobserved) {
+            if (observed || !skipUnobserved) {
+                event.fire(new Object());
+            }
+        }
+
+    }
+
+}
@@ -21,10 +21,12 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import javax.enterprise.context.Dependent;
 import javax.enterprise.context.NormalScope;
@@ -45,7 +47,6 @@ import javax.inject.Qualifier;
 import javax.inject.Scope;
 
 import org.jboss.weld.environment.se.Weld;
-import org.jboss.weld.environment.se.WeldContainer;
 import org.jboss.weld.util.collections.ImmutableSet;
 import org.jboss.weld.util.reflection.HierarchyDiscovery;
 
@@ -98,6 +99,20 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
         return MockBean.<T> builder().types(beanTypes).creating(beanInstance).build();
     }
 
+    /**
+     * A convenient method to create a {@link Bean} with default values (see also {@link #builder()}). Additionaly, the specified bean types are added to the
+     * set of bean types and the bean instance is obtained from the supplier when {@link Bean#create(CreationalContext)} is invoked for the first time.
+     *
+     * @param supplier
+     * @param beanTypes
+     * @return a {@link MockBean} instance
+     * @see Builder#creatingLazily(Supplier)
+     * @since 2.0.2
+     */
+    public static <T> Bean<T> lazy(Supplier<T> supplier, Type... beanTypes) {
+        return MockBean.<T> builder().types(beanTypes).creatingLazily(supplier).build();
+    }
+
     /**
      * A convenient method to create a {@link Builder} initialized from the specified bean class.
      * <p>
@@ -116,6 +131,24 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
 
     private static final AtomicInteger SEQUENCE = new AtomicInteger(0);
 
+    private static final String ID_PREFIX = MockBean.class.getName() + "_";
+
+    private static final Set<Annotation> DEFAULT_QUALIFIERS = ImmutableSet.of(Default.Literal.INSTANCE, Any.Literal.INSTANCE);
+
+    private static final Set<Annotation> DEFAULT_BUILDER_QUALIFIERS = ImmutableSet.of(AnyLiteral.INSTANCE);
+
+    private static final Set<Type> DEFAULT_TYPES = ImmutableSet.of(Object.class);
+
+    // The metadata of a bean class is only read once
+    private static final ClassValue<BeanClassDescriptor> DESCRIPTORS = new ClassValue<BeanClassDescriptor>() {
+
+        @Override
+        protected BeanClassDescriptor computeValue(Class<?> type) {
+            return new BeanClassDescriptor(type);
+        }
+
+    };
+
     private final Set<Class<? extends Annotation>> stereotypes;
 
     private final boolean alternative;
@@ -134,6 +167,8 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
 
     private final DestroyFunction<T> destroyCallback;
 
+    private final ResetFunction<T> resetCallback;
+
     private final String id;
 
     private final Class<?> beanClass;
@@ -141,6 +176,12 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
     protected MockBean(Class<?> beanClass, Set<Class<? extends Annotation>> stereotypes, boolean alternative, boolean selectForSyntheticBeanArchive, String name,
             Set<Annotation> qualifiers, Set<Type> types, Class<? extends Annotation> scope, CreateFunction<T> createCallback,
             DestroyFunction<T> destroyCallback) {
+        this(beanClass, stereotypes, alternative, selectForSyntheticBeanArchive, name, qualifiers, types, scope, createCallback, destroyCallback, null);
+    }
+
+    protected MockBean(Class<?> beanClass, Set<Class<? extends Annotation>> stereotypes, boolean alternative, boolean selectForSyntheticBeanArchive, String name,
+            Set<Annotation> qualifiers, Set<Type> types, Class<? extends Annotation> scope, CreateFunction<T> createCallback,
+            DestroyFunction<T> destroyCallback, ResetFunction<T> resetCallback) {
         this.beanClass = beanClass;
         this.stereotypes = stereotypes;
         this.alternative = alternative;
@@ -151,7 +192,8 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
         this.scope = scope;
         this.createCallback = createCallback;
         this.destroyCallback = destroyCallback;
-        this.id = new StringBuilder().append(MockBean.class.getName()).append("_").append(SEQUENCE.incrementAndGet()).toString();
+        this.resetCallback = resetCallback;
+        this.id = ID_PREFIX.concat(Integer.toString(SEQUENCE.incrementAndGet()));
     }
 
     @Override
@@ -221,66 +263,36 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
         return selectForSyntheticBeanArchive;
     }
 
+    CreateFunction<T> getCreateCallback() {
+        return createCallback;
+    }
+
+    /**
+     *
+     * @param containerId
+     * @return {@code true} if the bean instance is supplied lazily and was never created for the given container
+     * @see Builder#creatingLazily(Supplier)
+     */
+    boolean isUnmaterialized(String containerId) {
+        return createCallback instanceof LazyInstanceFactory && !((LazyInstanceFactory<?>) createCallback).isMaterialized(containerId);
+    }
+
+    /**
+     *
+     * @return the reset callback or {@code null} if the instance should not be reused
+     * @see Builder#reusable(ResetFunction)
+     */
+    ResetFunction<T> getResetCallback() {
+        return resetCallback;
+    }
+
     @Override
     public String getId() {
         return id;
     }
 
     private static <T> Builder<T> readInternal(Class<T> beanClass) {
-        // Note that we cannot use BeanManager here as the container may not be started yet
-        Builder<T> builder = new Builder<T>().beanClass(beanClass);
-
-        // Find all stereotypes
-        Set<Annotation> stereotypes = getStereotypes(beanClass);
-        // Name
-        Named named = beanClass.getAnnotation(Named.class);
-        if (named != null) {
-            if ("".equals(named.value())) {
-                builder.name(getDefaultName(beanClass));
-            } else {
-                builder.name(named.value());
-            }
-        } else {
-            for (Annotation stereotype : stereotypes) {
-                if (stereotype.annotationType().isAnnotationPresent(Named.class)) {
-                    builder.name(getDefaultName(beanClass));
-                    break;
-                }
-            }
-        }
-        // Scope
-        Set<Annotation> scopes = getScopes(beanClass);
-        if (scopes.isEmpty()) {
-            for (Annotation stereotype : stereotypes) {
-                scopes.addAll(getScopes(stereotype.annotationType()));
-            }
-        }
-        if (!scopes.isEmpty()) {
-            if (scopes.size() > 1) {
-                throw new IllegalStateException("At most one scope may be specifie [beanClass: " + beanClass + ", scopes: " + scopes + "]");
-            }
-            builder.scope(scopes.iterator().next().annotationType());
-        }
-        // Types
-        builder.types(new HierarchyDiscovery(beanClass).getTypeClosure());
-        // Qualifiers
-        for (Annotation annotation : beanClass.getAnnotations()) {
-            if (annotation.annotationType().isAnnotationPresent(Qualifier.class)) {
-                builder.addQualifier(annotation);
-            }
-        }
-        // Alternative
-        if (beanClass.isAnnotationPresent(Alternative.class)) {
-            builder.alternative(true);
-        } else {
-            for (Annotation stereotype : stereotypes) {
-                if (stereotype.annotationType().isAnnotationPresent(Alternative.class)) {
-                    builder.alternative(true);
-                    break;
-                }
-            }
-        }
-        return builder;
+        return DESCRIPTORS.get(beanClass).toBuilder();
     }
 
     private static Set<Annotation> getStereotypes(AnnotatedElement element) {
@@ -310,6 +322,101 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
         return defaultName.toString();
     }
 
+    /**
+     * Immutable metadata of a bean class, i.e. the result of the simulated bean discovery.
+     */
+    private static final class BeanClassDescriptor {
+
+        private final Class<?> beanClass;
+
+        private final String name;
+
+        private final Class<? extends Annotation> scope;
+
+        private final Set<Type> types;
+
+        private final Set<Annotation> qualifiers;
+
+        private final boolean alternative;
+
+        BeanClassDescriptor(Class<?> beanClass) {
+            // Note that we cannot use BeanManager here as the container may not be started yet
+            this.beanClass = beanClass;
+            // Find all stereotypes
+            Set<Annotation> stereotypes = getStereotypes(beanClass);
+            // Name
+            String name = null;
+            Named named = beanClass.getAnnotation(Named.class);
+            if (named != null) {
+                if ("".equals(named.value())) {
+                    name = getDefaultName(beanClass);
+                } else {
+                    name = named.value();
+                }
+            } else {
+                for (Annotation stereotype : stereotypes) {
+                    if (stereotype.annotationType().isAnnotationPresent(Named.class)) {
+                        name = getDefaultName(beanClass);
+                        break;
+                    }
+                }
+            }
+            this.name = name;
+            // Scope
+            Set<Annotation> scopes = getScopes(beanClass);
+            if (scopes.isEmpty()) {
+                for (Annotation stereotype : stereotypes) {
+                    scopes.addAll(getScopes(stereotype.annotationType()));
+                }
+            }
+            if (scopes.size() > 1) {
+                throw new IllegalStateException("At most one scope may be specifie [beanClass: " + beanClass + ", scopes: " + scopes + "]");
+            }
+            this.scope = scopes.isEmpty() ? null : scopes.iterator().next().annotationType();
+            // Types
+            this.types = ImmutableSet.copyOf(new HierarchyDiscovery(beanClass).getTypeClosure());
+            // Qualifiers
+            ImmutableSet.Builder<Annotation> qualifiers = ImmutableSet.builder();
+            for (Annotation annotation : beanClass.getAnnotations()) {
+                if (annotation.annotationType().isAnnotationPresent(Qualifier.class)) {
+                    qualifiers.add(annotation);
+                }
+            }
+            this.qualifiers = qualifiers.build();
+            // Alternative
+            boolean alternative = beanClass.isAnnotationPresent(Alternative.class);
+            if (!alternative) {
+                for (Annotation stereotype : stereotypes) {
+                    if (stereotype.annotationType().isAnnotationPresent(Alternative.class)) {
+                        alternative = true;
+                        break;
+                    }
+                }
+            }
+            this.alternative = alternative;
+        }
+
+        <T> Builder<T> toBuilder() {
+            Builder<T> builder = new Builder<T>().beanClass(beanClass);
+            // The immutable sets are shared, a builder only copies them if modified
+            builder.types = types;
+            if (name != null) {
+                builder.name(name);
+            }
+            if (scope != null) {
+                builder.scope(scope);
+            }
+            if (!qualifiers.isEmpty()) {
+                builder.qualifiers = qualifiers;
+            }
+            if (alternative) {
+                builder.alternative(true);
+            }
+            return builder;
+        }
+
+    }
+
     /**
      * A builder instance should not be reused nor shared.
      *
@@ -341,14 +448,15 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
 
         private DestroyFunction<T> destroyCallback;
 
+        private ResetFunction<T> resetCallback;
+
         private Builder() {
-            this.stereotypes = new HashSet<>();
+            // The sets are only allocated if modified
+            this.stereotypes = Collections.emptySet();
             this.alternative = false;
-            this.qualifiers = new HashSet<>();
-            this.qualifiers.add(AnyLiteral.INSTANCE);
+            this.qualifiers = DEFAULT_BUILDER_QUALIFIERS;
             this.scope = Dependent.class;
-            this.types = new HashSet<>();
-            this.types.add(Object.class);
+            this.types = DEFAULT_TYPES;
             this.beanClass = WeldCDIExtension.class;
             this.priority = null;
         }
@@ -393,7 +501,7 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
          * @see Bean#getTypes()
          */
         public Builder<T> types(Type... types) {
-            this.types.clear();
+            this.types = new HashSet<>();
             Collections.addAll(this.types, types);
             return this;
         }
@@ -404,8 +512,7 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
          * @return self
          */
         public Builder<T> types(Set<Type> types) {
-            this.types.clear();
-            this.types.addAll(types);
+            this.types = new HashSet<>(types);
             return this;
         }
 
@@ -415,6 +522,7 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
          * @return self
          */
         public Builder<T> addType(Type type) {
+            this.types = mutable(this.types);
             this.types.add(type);
             return this;
         }
@@ -426,7 +534,7 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
          * @see Bean#getQualifiers()
          */
         public Builder<T> qualifiers(Annotation... qualifiers) {
-            this.qualifiers.clear();
+            this.qualifiers = new HashSet<>();
             Collections.addAll(this.qualifiers, qualifiers);
             return this;
         }
@@ -437,6 +545,7 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
          * @return self
          */
         public Builder<T> addQualifier(Annotation qualifier) {
+            this.qualifiers = mutable(this.qualifiers);
             this.qualifiers.add(qualifier);
             return this;
         }
@@ -519,7 +628,7 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
          */
         @SuppressWarnings("unchecked")
         public Builder<T> stereotypes(Class<? extends Annotation>... stereotypes) {
-            this.stereotypes.clear();
+            this.stereotypes = new HashSet<>();
             Collections.addAll(this.stereotypes, stereotypes);
             return this;
         }
@@ -530,6 +639,7 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
          * @return self
          */
         public Builder<T> addStereotype(Class<? extends Annotation> stereotype) {
+            this.stereotypes = mutable(this.stereotypes);
             this.stereotypes.add(stereotype);
             return this;
         }
@@ -545,36 +655,35 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
             return this;
         }
 
+        /**
+         * The bean instance is obtained from the supplier when {@link Bean#create(CreationalContext)} is invoked for the first time, e.g. when a mock is
+         * expensive to create and might not be used at all. Subsequent invocations within the same container return the same instance.
+         *
+         * @param supplier
+         * @return self
+         * @see AbstractWeldInitiator#getUnmaterializedMockBeans()
+         * @since 2.0.2
+         */
+        public Builder<T> creatingLazily(Supplier<T> supplier) {
+            this.createCallback = new LazyInstanceFactory<>(Objects.requireNonNull(supplier));
+            return this;
+        }
+
         /**
          * Use {@link Unmanaged} to create/destroy the bean instance.
          *
          * <p>
-         * NOTE: {@link CreationalContext#toString()} is used as a key in a map and therefore must be unique for the lifetime of a bean instance. Weld
-         * implementation fulfills this requirement.
+         * One {@link Unmanaged} is created per container and the instances are tracked by the identity of the {@link CreationalContext}. The instances
+         * which were not destroyed are destroyed when the container is shut down.
          * </p>
          *
          * @return self
          * @see UnmanagedInstance
          */
-        @SuppressWarnings("unchecked")
         public Builder<T> useUnmanaged(Class<T> beanClass) {
-            Map<String, UnmanagedInstance<?>> ctxToUnmanaged = new ConcurrentHashMap<>();
-            create(ctx -> {
-                Unmanaged<?> unmanaged = new Unmanaged<>(WeldContainer.current().getBeanManager(), beanClass);
-                UnmanagedInstance<?> unmanagedInstance = unmanaged.newInstance();
-                ctxToUnmanaged.put(ctx.toString(), unmanagedInstance);
-                return (T) unmanagedInstance.produce().inject().postConstruct().get();
-            });
-            destroy((o, ctx) -> {
-                UnmanagedInstance<?> unmanagedInstance = ctxToUnmanaged.remove(ctx.toString());
-                if (unmanagedInstance != null) {
-                    if (!unmanagedInstance.get().equals(o)) {
-                        throw new IllegalStateException(
-                                "Unmanaged instance [" + unmanagedInstance.get() + "] is not equal to the bean instance to be destroyed: " + o);
-                    }
-                    unmanagedInstance.preDestroy().dispose();
-                }
-            });
+            UnmanagedBeanFactory<T> factory = new UnmanagedBeanFactory<>(beanClass);
+            create(factory);
+            destroy(factory);
             return this;
         }
 
@@ -600,39 +709,135 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
             return this;
         }
 
+        /**
+         * The contextual instance is kept when a context activated by the initiator is deactivated and reused for the next activation within the same
+         * container.
+         *
+         * @return self
+         * @see Reusable
+         * @since 2.0.2
+         */
+        public Builder<T> reusable() {
+            return reusable(instance -> {
+            });
+        }
+
+        /**
+         * The contextual instance is kept when a context activated by the initiator is deactivated and reused for the next activation within the same
+         * container. The callback is invoked whenever the instance is released.
+         *
+         * @param callback
+         * @return self
+         * @see Reusable
+         * @since 2.0.2
+         */
+        public Builder<T> reusable(ResetFunction<T> callback) {
+            this.resetCallback = Objects.requireNonNull(callback);
+            return this;
+        }
+
         /**
          *
          * @return a new {@link MockBean} instance
          * @throws IllegalStateException If a create callback is not set
          */
         public MockBean<T> build() {
+            return build(null);
+        }
+
+        /**
+         *
+         * @param signatures the cache of immutable sets shared by the beans built in bulk, may be {@code null}
+         * @return a new {@link MockBean} instance
+         * @see AbstractWeldInitiator.AbstractBuilder#addMockBeans(java.util.stream.Stream)
+         */
+        MockBean<T> build(SignatureCache signatures) {
             if (createCallback == null) {
                 throw new IllegalStateException("Create callback must not be null");
             }
-            Set<Annotation> normalizedQualfiers = new HashSet<Annotation>(qualifiers);
-            normalizedQualfiers.remove(Any.Literal.INSTANCE);
-            normalizedQualfiers.remove(Default.Literal.INSTANCE);
-            if (normalizedQualfiers.isEmpty()) {
-                normalizedQualfiers.add(Default.Literal.INSTANCE);
-                normalizedQualfiers.add(Any.Literal.INSTANCE);
+            Set<Annotation> normalizedQualfiers;
+            Set<Type> types = this.types;
+            Set<Class<? extends Annotation>> stereotypes = this.stereotypes;
+            if (signatures == null) {
+                normalizedQualfiers = normalizeQualifiers(qualifiers);
             } else {
-                ImmutableSet.Builder<Annotation> builder = ImmutableSet.builder();
-                if (normalizedQualfiers.size() == 1
-                        && normalizedQualfiers.iterator().next().annotationType().equals(Named.class)) {
-                    builder.add(Default.Literal.INSTANCE);
-                }
-                builder.add(Any.Literal.INSTANCE);
-                builder.addAll(qualifiers);
-                normalizedQualfiers = builder.build();
+                normalizedQualfiers = signatures.normalizeQualifiers(qualifiers);
+                types = signatures.intern(types);
+                stereotypes = signatures.intern(stereotypes);
             }
             // if given any priority, we will instead initialize MockBeanWithPriority
             if (priority != null) {
                 return new MockBeanWithPriority<>(beanClass, stereotypes, alternative, selectForSyntheticBeanArchive, priority, name, normalizedQualfiers, types, scope, createCallback,
-                        destroyCallback);
+                        destroyCallback, resetCallback);
             } else {
                 return new MockBean<>(beanClass, stereotypes, alternative, selectForSyntheticBeanArchive, name, normalizedQualfiers, types, scope, createCallback,
-                        destroyCallback);
+                        destroyCallback, resetCallback);
+            }
+        }
+
+        private static <E> Set<E> mutable(Set<E> set) {
+            return set instanceof HashSet ? set : new HashSet<>(set);
+        }
+
+        private static Set<Annotation> normalizeQualifiers(Set<Annotation> qualifiers) {
+            // Count the qualifiers other than @Any and @Default without creating an intermediate set
+            int count = 0;
+            Annotation other = null;
+            for (Annotation qualifier : qualifiers) {
+                if (!qualifier.annotationType().equals(Any.class) && !qualifier.annotationType().equals(Default.class)) {
+                    count++;
+                    other = qualifier;
+                }
+            }
+            if (count == 0) {
+                return DEFAULT_QUALIFIERS;
+            }
+            ImmutableSet.Builder<Annotation> builder = ImmutableSet.builder();
+            if (count == 1 && other.annotationType().equals(Named.class)) {
+                builder.add(Default.Literal.INSTANCE);
             }
+            builder.add(Any.Literal.INSTANCE);
+            builder.addAll(qualifiers);
+            return builder.build();
+        }
+
+    }
+
+    /**
+     * Interns the immutable sets of bean types, qualifiers and stereotypes so that the beans with identical signatures share the same set instances.
+     */
+    static final class SignatureCache {
+
+        private final ConcurrentMap<Set<?>, Set<?>> sets = new ConcurrentHashMap<>();
+
+        // Raw qualifiers declared by a builder -> interned normalized qualifiers
+        private final ConcurrentMap<Set<Annotation>, Set<Annotation>> qualifiers = new ConcurrentHashMap<>();
+
+        Set<Annotation> normalizeQualifiers(Set<Annotation> rawQualifiers) {
+            // The lookup by the raw qualifiers does not need the normalized set
+            Set<Annotation> normalized = qualifiers.get(rawQualifiers);
+            if (normalized == null) {
+                normalized = intern(Builder.normalizeQualifiers(rawQualifiers));
+                qualifiers.putIfAbsent(ImmutableSet.copyOf(rawQualifiers), normalized);
+            }
+            return normalized;
+        }
+
+        @SuppressWarnings("unchecked")
+        <E> Set<E> intern(Set<E> set) {
+            if (set.isEmpty()) {
+                return Collections.emptySet();
+            }
+            // The lookup does not need a copy
+            Set<E> interned = (Set<E>) sets.get(set);
+            if (interned == null) {
+                Set<E> copy = ImmutableSet.copyOf(set);
+                interned = (Set<E>) sets.putIfAbsent(copy, copy);
+                if (interned == null) {
+                    interned = copy;
+                }
+            }
+            return interned;
         }
 
     }
@@ -660,6 +865,20 @@ public class MockBean<T> implements Bean<T>, PassivationCapable {
 
     }
 
+    /**
+     *
+     * @since 2.0.2
+     */
+    public interface ResetFunction<T> {
+
+        /**
+         *
+         * @param instance the released instance
+         */
+        void reset(T instance);
+
+    }
+
     @SuppressWarnings("all")
     static class AnyLiteral extends AnnotationLiteral<Any> implements Any {
 
@@ -18,8 +18,9 @@ class MockBeanWithPriority<T> extends MockBean<T> implements Prioritized {
     MockBeanWithPriority(Class<?> beanClass, Set<Class<? extends Annotation>> stereotypes, boolean alternative,
                                  boolean selectForSyntheticBeanArchive, int priority, String name,
                                  Set<Annotation> qualifiers, Set<Type> types, Class<? extends Annotation> scope,
-                                 CreateFunction<T> createCallback, DestroyFunction<T> destroyCallback) {
-        super(beanClass, stereotypes, alternative, selectForSyntheticBeanArchive, name, qualifiers, types, scope, createCallback, destroyCallback);
+                                 CreateFunction<T> createCallback, DestroyFunction<T> destroyCallback, ResetFunction<T> resetCallback) {
+        super(beanClass, stereotypes, alternative, selectForSyntheticBeanArchive, name, qualifiers, types, scope, createCallback, destroyCallback,
+                resetCallback);
         if (priority <= 0) {
             throw new IllegalArgumentException("MockBean cannot have priority equal or lower than 0!");
         }
@@ -18,14 +18,18 @@ package org.jboss.weld.junit;
 
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.context.Dependent;
-import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.CDI;
@@ -34,6 +38,7 @@ import javax.enterprise.inject.spi.InterceptionType;
 import javax.enterprise.inject.spi.Interceptor;
 import javax.interceptor.InvocationContext;
 
+import org.jboss.weld.bean.RIBean;
 import org.jboss.weld.bean.builtin.BeanManagerProxy;
 import org.jboss.weld.junit.MockInterceptor.MockInterceptorInstance;
 import org.jboss.weld.util.bean.SerializableForwardingBean;
@@ -56,6 +61,15 @@ import org.jboss.weld.util.bean.SerializableForwardingBean;
  */
 public class MockInterceptor implements Interceptor<MockInterceptorInstance> {
 
+    private static final ClassValue<CreationalContextAccessor> ACCESSORS = new ClassValue<CreationalContextAccessor>() {
+
+        @Override
+        protected CreationalContextAccessor computeValue(Class<?> type) {
+            return CreationalContextAccessor.of(type);
+        }
+
+    };
+
     /**
      *
      * @param interceptorBindings
@@ -73,6 +87,9 @@ public class MockInterceptor implements Interceptor<MockInterceptorInstance> {
 
     private final Set<Annotation> interceptorBindings;
 
+    // Container id -> intercepted bean -> instance; an instance is immutable and can be shared
+    private final ConcurrentMap<String, ConcurrentMap<Bean<?>, MockInterceptorInstance>> instances;
+
     /**
      *
      * @param beanClass
@@ -85,6 +102,7 @@ public class MockInterceptor implements Interceptor<MockInterceptorInstance> {
         this.type = type;
         this.callback = callback;
         this.interceptorBindings = interceptorBindings;
+        this.instances = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -104,7 +122,13 @@ public class MockInterceptor implements Interceptor<MockInterceptorInstance> {
 
     @Override
     public MockInterceptorInstance create(CreationalContext<MockInterceptorInstance> creationalContext) {
-        return new MockInterceptorInstance(getInterceptedBean(creationalContext), BeanManagerProxy.unwrap(CDI.current().getBeanManager()).getContextId());
+        Bean<?> interceptedBean = ACCESSORS.get(creationalContext.getClass()).getInterceptedBean(creationalContext);
+        if (interceptedBean == null) {
+            return MockInterceptorInstance.NONE;
+        }
+        String contextId = getContextId(interceptedBean);
+        return instances.computeIfAbsent(contextId, id -> new ConcurrentHashMap<>()).computeIfAbsent(interceptedBean,
+                bean -> new MockInterceptorInstance(bean, contextId));
     }
 
     @Override
@@ -161,38 +185,91 @@ public class MockInterceptor implements Interceptor<MockInterceptorInstance> {
         return MockInterceptor.class.equals(beanClass);
     }
 
-    private Bean<?> getInterceptedBean(CreationalContext<MockInterceptorInstance> ctx) {
-        if (!ctx.getClass().getName().startsWith("org.jboss.weld")) {
-            return null;
+    /**
+     * Discards the cached instances. Invoked when the container is shut down.
+     *
+     * @param containerId
+     */
+    void containerShutdown(String containerId) {
+        instances.remove(containerId);
+    }
+
+    private static String getContextId(Bean<?> interceptedBean) {
+        if (interceptedBean instanceof RIBean) {
+            // The bean manager of a Weld bean is known and CDI.current() is not needed
+            return ((RIBean<?>) interceptedBean).getBeanManager().getContextId();
         }
-        Bean<?> interceptedBean = null;
-        try {
-            // Note that we need to support both 2.x and 3.x
-            Class<?> ctxImplClazz;
-            if (ctx.getClass().getName().startsWith("org.jboss.weld.contexts")) {
-                // 3.x
-                ctxImplClazz = MockInterceptor.class.getClassLoader().loadClass("org.jboss.weld.contexts.CreationalContextImpl");
-            } else {
-                // 2.x
-                ctxImplClazz = MockInterceptor.class.getClassLoader().loadClass("org.jboss.weld.context.CreationalContextImpl");
+        return BeanManagerProxy.unwrap(CDI.current().getBeanManager()).getContextId();
+    }
+
+    /**
+     * Obtains the intercepted bean from the parent of a creational context. The reflective lookup is performed once per creational context class.
+     */
+    private static final class CreationalContextAccessor {
+
+        private static final CreationalContextAccessor NONE = new CreationalContextAccessor(null, null);
+
+        private final MethodHandle getParentCreationalContext;
+
+        private final MethodHandle getContextual;
+
+        private CreationalContextAccessor(MethodHandle getParentCreationalContext, MethodHandle getContextual) {
+            this.getParentCreationalContext = getParentCreationalContext;
+            this.getContextual = getContextual;
+        }
+
+        static CreationalContextAccessor of(Class<?> ctxClazz) {
+            if (!ctxClazz.getName().startsWith("org.jboss.weld")) {
+                return NONE;
             }
-            Object parentContext = ctxImplClazz.getMethod("getParentCreationalContext").invoke(ctx);
-            if (parentContext != null) {
-                Contextual<?> interceptedContextual = (Contextual<?>) ctxImplClazz.getMethod("getContextual").invoke(parentContext);
-                if (interceptedContextual instanceof Bean<?>) {
-                    interceptedBean = (Bean<?>) interceptedContextual;
+            try {
+                // Note that we need to support both 2.x and 3.x
+                Class<?> ctxImplClazz;
+                if (ctxClazz.getName().startsWith("org.jboss.weld.contexts")) {
+                    // 3.x
+                    ctxImplClazz = MockInterceptor.class.getClassLoader().loadClass("org.jboss.weld.contexts.CreationalContextImpl");
+                } else {
+                    // 2.x
+                    ctxImplClazz = MockInterceptor.class.getClassLoader().loadClass("org.jboss.weld.context.CreationalContextImpl");
                 }
+                Lookup lookup = MethodHandles.publicLookup();
+                return new CreationalContextAccessor(
+                        lookup.unreflect(ctxImplClazz.getMethod("getParentCreationalContext")).asType(MethodType.methodType(Object.class, Object.class)),
+                        lookup.unreflect(ctxImplClazz.getMethod("getContextual")).asType(MethodType.methodType(Object.class, Object.class)));
+            } catch (ClassNotFoundException | IllegalAccessException | NoSuchMethodException | SecurityException e) {
+                throw new IllegalStateException(e);
             }
-        } catch (ClassNotFoundException | IllegalAccessException | IllegalArgumentException | NoSuchMethodException | SecurityException | InvocationTargetException e) {
-            throw new IllegalStateException(e);
         }
-        return interceptedBean;
+
+        Bean<?> getInterceptedBean(CreationalContext<?> ctx) {
+            if (getParentCreationalContext == null) {
+                return null;
+            }
+            try {
+                Object parentContext = getParentCreationalContext.invokeExact((Object) ctx);
+                if (parentContext != null) {
+                    Object interceptedContextual = getContextual.invokeExact(parentContext);
+                    if (interceptedContextual instanceof Bean<?>) {
+                        return (Bean<?>) interceptedContextual;
+                    }
+                }
+                return null;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
     }
 
     public static class MockInterceptorInstance implements Serializable {
 
         private static final long serialVersionUID = -1623826535751475203L;
 
+        // Shared by all the interceptor instances without an intercepted bean
+        static final MockInterceptorInstance NONE = new MockInterceptorInstance(null, null);
+
         private final SerializableForwardingBean<?> interceptedBean;
 
         MockInterceptorInstance(Bean<?> interceptedBean, String contextId) {
@@ -262,6 +339,39 @@ public class MockInterceptor implements Interceptor<MockInterceptorInstance> {
             return type(InterceptionType.AROUND_INVOKE).callback(callback).build();
         }
 
+        /**
+         *
+         * @param profiler
+         * @return a new around invoke interceptor which records the latencies of the intercepted business methods
+         * @see InvocationProfiler
+         * @since 2.0.2
+         */
+        public MockInterceptor profiling(InvocationProfiler profiler) {
+            return aroundInvoke(profiler);
+        }
+
+        /**
+         *
+         * @param faultInjector
+         * @return a new around invoke interceptor which injects delays and failures into the intercepted business methods
+         * @see FaultInjector
+         * @since 2.0.2
+         */
+        public MockInterceptor injectingFaults(FaultInjector faultInjector) {
+            return aroundInvoke(faultInjector);
+        }
+
+        /**
+         *
+         * @param recorder
+         * @return a new around invoke interceptor which records the intercepted business method invocations
+         * @see InvocationRecorder
+         * @since 2.0.2
+         */
+        public MockInterceptor recording(InvocationRecorder recorder) {
+            return aroundInvoke(recorder);
+        }
+
         public MockInterceptor aroundConstruct(InterceptionCallback callback) {
             return type(InterceptionType.AROUND_CONSTRUCT).callback(callback).build();
         }
@@ -0,0 +1,188 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.context.ConversationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.jboss.weld.context.bound.BoundConversationContext;
+import org.jboss.weld.context.bound.BoundLiteral;
+import org.jboss.weld.context.bound.BoundRequest;
+import org.jboss.weld.context.bound.BoundRequestContext;
+import org.jboss.weld.context.bound.BoundSessionContext;
+import org.jboss.weld.context.bound.MutableBoundRequest;
+
+/**
+ * Activates the built-in bound contexts provided by Weld for {@link ContextMode#NATIVE}. The contexts are activated in the order request, session and
+ * conversation and deactivated in the reverse order. The contexts are bound to the activating thread.
+ */
+final class NativeContexts {
+
+    static final Set<Class<? extends Annotation>> SUPPORTED_SCOPES = Collections
+            .unmodifiableSet(new HashSet<>(Arrays.asList(RequestScoped.class, SessionScoped.class, ConversationScoped.class)));
+
+    private final boolean request;
+
+    private final boolean session;
+
+    private final boolean conversation;
+
+    private final boolean skipUnobservedLifecycleEvents;
+
+    private volatile State state;
+
+    // Lifecycle events are cached per container
+    private volatile Events events;
+
+    /**
+     *
+     * @param scopes
+     * @param skipUnobservedLifecycleEvents
+     */
+    NativeContexts(Set<Class<? extends Annotation>> scopes, boolean skipUnobservedLifecycleEvents) {
+        this.request = scopes.contains(RequestScoped.class);
+        this.session = scopes.contains(SessionScoped.class);
+        this.conversation = scopes.contains(ConversationScoped.class);
+        this.skipUnobservedLifecycleEvents = skipUnobservedLifecycleEvents;
+    }
+
+    void activate(BeanManager beanManager) {
+        State state = new State(getEvents(beanManager));
+        if (request) {
+            state.requestContext = getBoundContext(beanManager, BoundRequestContext.class);
+            state.requestContext.associate(state.requestMap);
+            state.requestContext.activate();
+            state.events.request.fireInitialized();
+        }
+        if (session) {
+            state.sessionContext = getBoundContext(beanManager, BoundSessionContext.class);
+            state.sessionContext.associate(state.sessionMap);
+            state.sessionContext.activate();
+            state.events.session.fireInitialized();
+        }
+        if (conversation) {
+            state.conversationContext = getBoundContext(beanManager, BoundConversationContext.class);
+            state.conversationContext.associate(state.boundRequest);
+            state.conversationContext.activate();
+            state.events.conversation.fireInitialized();
+        }
+        this.state = state;
+    }
+
+    void deactivate() {
+        State state = this.state;
+        if (state == null) {
+            return;
+        }
+        this.state = null;
+        try {
+            if (state.conversationContext != null) {
+                state.conversationContext.invalidate();
+                state.conversationContext.deactivate();
+                state.conversationContext.dissociate(state.boundRequest);
+                state.events.conversation.fireDestroyed();
+            }
+        } finally {
+            try {
+                if (state.sessionContext != null) {
+                    state.sessionContext.invalidate();
+                    state.sessionContext.deactivate();
+                    state.sessionContext.dissociate(state.sessionMap);
+                    state.events.session.fireDestroyed();
+                }
+            } finally {
+                if (state.requestContext != null) {
+                    state.requestContext.invalidate();
+                    state.requestContext.deactivate();
+                    state.requestContext.dissociate(state.requestMap);
+                    state.events.request.fireDestroyed();
+                }
+            }
+        }
+    }
+
+    private Events getEvents(BeanManager beanManager) {
+        Events events = this.events;
+        if (events == null || events.beanManager != beanManager) {
+            events = new Events(beanManager, skipUnobservedLifecycleEvents);
+            this.events = events;
+        }
+        return events;
+    }
+
+    private static <T> T getBoundContext(BeanManager beanManager, Class<T> type) {
+        Bean<?> bean = beanManager.resolve(beanManager.getBeans(type, BoundLiteral.INSTANCE));
+        if (bean == null) {
+            throw new IllegalStateException("Built-in context not available: " + type.getName());
+        }
+        return type.cast(beanManager.getReference(bean, type, beanManager.createCreationalContext(bean)));
+    }
+
+    private static final class State {
+
+        private final Map<String, Object> requestMap = new HashMap<>();
+
+        private final Map<String, Object> sessionMap = new HashMap<>();
+
+        // Conversations are stored in the session map
+        private final BoundRequest boundRequest = new MutableBoundRequest(requestMap, sessionMap);
+
+        private final Events events;
+
+        private BoundRequestContext requestContext;
+
+        private BoundSessionContext sessionContext;
+
+        private BoundConversationContext conversationContext;
+
+        State(Events events) {
+            this.events = events;
+        }
+
+    }
+
+    private static final class Events {
+
+        private final BeanManager beanManager;
+
+        private final LifecycleEvents request;
+
+        private final LifecycleEvents session;
+
+        private final LifecycleEvents conversation;
+
+        Events(BeanManager beanManager, boolean skipUnobserved) {
+            this.beanManager = beanManager;
+            this.request = new LifecycleEvents(beanManager, RequestScoped.class, skipUnobserved);
+            this.session = new LifecycleEvents(beanManager, SessionScoped.class, skipUnobserved);
+            this.conversation = new LifecycleEvents(beanManager, ConversationScoped.class, skipUnobserved);
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean class whose contextual instance may be kept when a context activated by the initiator is deactivated. The instance is reused for the next
+ * activation of the context within the same container instead of being destroyed and created again. The instances are destroyed when the container is
+ * shut down.
+ *
+ * <p>
+ * Only use this annotation for beans which carry no state, e.g. beans holding expensive immutable structures. If the bean class declares a no-arg method
+ * annotated with {@link Reset}, the method is invoked whenever the instance is released, i.e. when the context is deactivated.
+ * </p>
+ *
+ * <pre>
+ * &#64;Reusable
+ * &#64;RequestScoped
+ * class TemplateRenderer {
+ *
+ *     &#64;Reusable.Reset
+ *     void clearCaches() {
+ *     }
+ * }
+ * </pre>
+ *
+ * @see MockBean.Builder#reusable(MockBean.ResetFunction)
+ * @since 2.0.2
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Reusable {
+
+    /**
+     * Identifies the reset hook of a {@link Reusable} bean.
+     */
+    @Documented
+    @Retention(RUNTIME)
+    @Target(METHOD)
+    @interface Reset {
+
+    }
+
+}
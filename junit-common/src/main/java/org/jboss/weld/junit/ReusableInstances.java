@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.DefinitionException;
+
+import org.jboss.weld.bean.ManagedBean;
+import org.jboss.weld.junit.ContextImpl.ContextualInstance;
+import org.jboss.weld.junit.MockBean.ResetFunction;
+
+/**
+ * Keeps the released contextual instances of {@link Reusable} beans and mock beans built with {@link MockBean.Builder#reusable()}. At most one instance is
+ * kept per contextual.
+ */
+final class ReusableInstances {
+
+    private static final Logger LOGGER = Logger.getLogger(ReusableInstances.class.getName());
+
+    // Reset hooks are resolved once per contextual, an empty optional means the contextual is not reusable
+    private final ConcurrentMap<Contextual<?>, Optional<ResetFunction<Object>>> resetHooks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Contextual<?>, ContextualInstance<?>> released = new ConcurrentHashMap<>();
+
+    /**
+     *
+     * @param contextual
+     * @return the released instance for the given contextual or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    <T> ContextualInstance<T> take(Contextual<T> contextual) {
+        if (released.isEmpty()) {
+            return null;
+        }
+        return (ContextualInstance<T>) released.remove(contextual);
+    }
+
+    /**
+     * Resets the instance and keeps it for the next activation if the contextual is reusable.
+     *
+     * @param instance
+     * @return {@code true} if the instance was kept and must not be destroyed, {@code false} otherwise
+     */
+    boolean release(ContextualInstance<?> instance) {
+        Optional<ResetFunction<Object>> resetHook = resetHooks.computeIfAbsent(instance.getContextual(), ReusableInstances::findResetHook);
+        if (!resetHook.isPresent()) {
+            return false;
+        }
+        resetHook.get().reset(instance.get());
+        // Another state of the context might have released an instance already
+        return released.putIfAbsent(instance.getContextual(), instance) == null;
+    }
+
+    /**
+     *
+     * @param instances
+     * @return the instances which were not released and must be destroyed
+     */
+    Collection<ContextualInstance<?>> release(Collection<ContextualInstance<?>> instances) {
+        List<ContextualInstance<?>> toDestroy = new ArrayList<>(instances.size());
+        for (ContextualInstance<?> instance : instances) {
+            try {
+                if (release(instance)) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Unable to reset instance " + instance.get() + " for bean: " + instance.getContextual(), e);
+            }
+            toDestroy.add(instance);
+        }
+        return toDestroy;
+    }
+
+    /**
+     *
+     * @return all the released instances, the instances are removed
+     */
+    Collection<ContextualInstance<?>> drain() {
+        List<ContextualInstance<?>> instances = new ArrayList<>(released.values());
+        released.clear();
+        return instances;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<ResetFunction<Object>> findResetHook(Contextual<?> contextual) {
+        if (contextual instanceof MockBean) {
+            return Optional.ofNullable((ResetFunction<Object>) ((MockBean<?>) contextual).getResetCallback());
+        }
+        // Producers are never reusable
+        if (!(contextual instanceof ManagedBean) || !((Bean<?>) contextual).getBeanClass().isAnnotationPresent(Reusable.class)) {
+            return Optional.empty();
+        }
+        // The reset hook was validated during bootstrap
+        Method resetMethod = findResetMethod(((Bean<?>) contextual).getBeanClass());
+        return Optional.of(resetMethod != null ? createResetHook(resetMethod) : instance -> {
+        });
+    }
+
+    /**
+     *
+     * @param beanClass
+     * @return the reset hook declared by the given class or its superclasses or {@code null}
+     * @throws DefinitionException if the reset hook declares a parameter
+     */
+    static Method findResetMethod(Class<?> beanClass) {
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Reusable.Reset.class)) {
+                    if (method.getParameterCount() != 0) {
+                        throw new DefinitionException("A reset hook must not declare any parameter: " + method);
+                    }
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static ResetFunction<Object> createResetHook(Method method) {
+        if (!method.isAccessible()) {
+            AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+                method.setAccessible(true);
+                return null;
+            });
+        }
+        return instance -> {
+            try {
+                method.invoke(instance);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("Unable to reset " + instance, e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+}
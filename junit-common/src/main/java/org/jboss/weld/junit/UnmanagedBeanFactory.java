@@ -0,0 +1,170 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Unmanaged;
+import javax.enterprise.inject.spi.Unmanaged.UnmanagedInstance;
+
+import org.jboss.weld.environment.se.WeldContainer;
+import org.jboss.weld.junit.MockBean.CreateFunction;
+import org.jboss.weld.junit.MockBean.DestroyFunction;
+
+/**
+ * Uses {@link Unmanaged} to create/destroy the instances of a mock bean. One {@link Unmanaged} is created per container so that the metadata of the bean
+ * class is not built again for each instance.
+ *
+ * <p>
+ * The instances are tracked by the identity of the {@link CreationalContext}. A creational context is only weakly referenced and so an instance which is
+ * never destroyed does not leak. The instances which were not destroyed are destroyed when the container is shut down.
+ * </p>
+ *
+ * @param <T>
+ * @see MockBean.Builder#useUnmanaged(Class)
+ */
+final class UnmanagedBeanFactory<T> implements CreateFunction<T>, DestroyFunction<T>, ContainerShutdownAware {
+
+    private static final Logger LOGGER = Logger.getLogger(UnmanagedBeanFactory.class.getName());
+
+    private final Class<T> beanClass;
+
+    // Container id -> state
+    private final ConcurrentMap<String, ContainerState<T>> states;
+
+    UnmanagedBeanFactory(Class<T> beanClass) {
+        this.beanClass = beanClass;
+        this.states = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public T create(CreationalContext<T> creationalContext) {
+        WeldContainer container = WeldContainer.current();
+        ContainerState<T> state = states.computeIfAbsent(container.getId(),
+                id -> new ContainerState<>(new Unmanaged<>(container.getBeanManager(), beanClass)));
+        UnmanagedInstance<T> unmanagedInstance = state.unmanaged.newInstance();
+        T instance = unmanagedInstance.produce().inject().postConstruct().get();
+        state.put(creationalContext, unmanagedInstance);
+        return instance;
+    }
+
+    @Override
+    public void destroy(T instance, CreationalContext<T> creationalContext) {
+        for (ContainerState<T> state : states.values()) {
+            UnmanagedInstance<T> unmanagedInstance = state.remove(creationalContext);
+            if (unmanagedInstance != null) {
+                if (!unmanagedInstance.get().equals(instance)) {
+                    throw new IllegalStateException(
+                            "Unmanaged instance [" + unmanagedInstance.get() + "] is not equal to the bean instance to be destroyed: " + instance);
+                }
+                unmanagedInstance.preDestroy().dispose();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Destroys the instances which were not destroyed yet and discards the cached {@link Unmanaged}.
+     */
+    @Override
+    public void containerShutdown(String containerId) {
+        ContainerState<T> state = states.remove(containerId);
+        if (state == null) {
+            return;
+        }
+        for (UnmanagedInstance<T> unmanagedInstance : state.instances.values()) {
+            try {
+                unmanagedInstance.preDestroy().dispose();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Unable to destroy unmanaged instance " + unmanagedInstance.get(), e);
+            }
+        }
+        state.instances.clear();
+    }
+
+    private static final class ContainerState<T> {
+
+        private final Unmanaged<T> unmanaged;
+
+        private final ConcurrentMap<ContextKey, UnmanagedInstance<T>> instances;
+
+        private final ReferenceQueue<CreationalContext<?>> queue;
+
+        ContainerState(Unmanaged<T> unmanaged) {
+            this.unmanaged = unmanaged;
+            this.instances = new ConcurrentHashMap<>();
+            this.queue = new ReferenceQueue<>();
+        }
+
+        void put(CreationalContext<?> creationalContext, UnmanagedInstance<T> instance) {
+            expunge();
+            instances.put(new ContextKey(creationalContext, queue), instance);
+        }
+
+        UnmanagedInstance<T> remove(CreationalContext<?> creationalContext) {
+            expunge();
+            return instances.remove(new ContextKey(creationalContext, null));
+        }
+
+        private void expunge() {
+            // The creational context was garbage collected, i.e. the instance can never be destroyed
+            for (Reference<?> key; (key = queue.poll()) != null;) {
+                instances.remove(key);
+            }
+        }
+
+    }
+
+    /**
+     * A weak reference to a creational context compared by identity.
+     */
+    private static final class ContextKey extends WeakReference<CreationalContext<?>> {
+
+        private final int hashCode;
+
+        ContextKey(CreationalContext<?> creationalContext, ReferenceQueue<CreationalContext<?>> queue) {
+            super(creationalContext, queue);
+            this.hashCode = System.identityHashCode(creationalContext);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ContextKey)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((ContextKey) obj).get();
+        }
+
+    }
+
+}
@@ -18,14 +18,29 @@ package org.jboss.weld.junit;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Any;
 import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeShutdown;
+import javax.enterprise.inject.spi.DefinitionException;
 import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessManagedBean;
+
+import org.jboss.weld.bean.builtin.BeanManagerProxy;
 
 /**
  *
@@ -36,21 +51,76 @@ class WeldCDIExtension implements Extension {
 
     private final Set<Class<? extends Annotation>> scopesToActivate;
 
+    private final Map<Class<? extends Annotation>, ContextMode> contextModes;
+
     private final Set<Bean<?>> beans;
 
+    private final int propagatingExecutorThreads;
+
     private final List<ContextImpl> contexts;
 
-    public WeldCDIExtension(Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans) {
+    // Contexts activated with ContextMode.TOKEN
+    private final List<ContextImpl> tokenContexts;
+
+    // Contexts activated with ContextMode.INDEXED
+    private final List<ContextImpl> indexedContexts;
+
+    private final InstanceDestroyer destroyer;
+
+    private final boolean skipUnobservedLifecycleEvents;
+
+    // Built-in Weld contexts activated with ContextMode.NATIVE
+    private final NativeContexts nativeContexts;
+
+    private volatile BeanManager beanManager;
+
+    public WeldCDIExtension(Set<Class<? extends Annotation>> scopesToActivate, Map<Class<? extends Annotation>, ContextMode> contextModes,
+            Set<Bean<?>> beans, int propagatingExecutorThreads, DestructionPolicy destructionPolicy, boolean skipUnobservedLifecycleEvents) {
         this.scopesToActivate = scopesToActivate;
+        this.contextModes = contextModes;
         this.beans = beans;
+        this.propagatingExecutorThreads = propagatingExecutorThreads;
         this.contexts = new ArrayList<>();
+        this.tokenContexts = new ArrayList<>();
+        this.indexedContexts = new ArrayList<>();
+        this.destroyer = new InstanceDestroyer(destructionPolicy);
+        this.skipUnobservedLifecycleEvents = skipUnobservedLifecycleEvents;
+        Set<Class<? extends Annotation>> nativeScopes = new HashSet<>();
+        for (Map.Entry<Class<? extends Annotation>, ContextMode> entry : contextModes.entrySet()) {
+            if (entry.getValue() == ContextMode.NATIVE) {
+                nativeScopes.add(entry.getKey());
+            }
+        }
+        this.nativeContexts = nativeScopes.isEmpty() ? null : new NativeContexts(nativeScopes, skipUnobservedLifecycleEvents);
+    }
+
+    <T> void validateReusableBean(@Observes ProcessManagedBean<T> event) {
+        // The reset hook is validated once so that an invalid hook is not detected again whenever an instance is released
+        if (event.getAnnotatedBeanClass().isAnnotationPresent(Reusable.class)) {
+            try {
+                ReusableInstances.findResetMethod(event.getAnnotatedBeanClass().getJavaClass());
+            } catch (DefinitionException e) {
+                event.addDefinitionError(e);
+            }
+        }
     }
 
     void afterBeandiscovery(@Observes AfterBeanDiscovery event, BeanManager beanManager) {
+        this.beanManager = beanManager;
         if (scopesToActivate != null) {
             for (Class<? extends Annotation> scope : scopesToActivate) {
-                ContextImpl ctx = new ContextImpl(scope, beanManager);
+                ContextMode mode = contextModes.getOrDefault(scope, ContextMode.THREAD_LOCAL);
+                if (mode == ContextMode.NATIVE) {
+                    // Weld's built-in context is used
+                    continue;
+                }
+                ContextImpl ctx = new ContextImpl(scope, beanManager, createStorage(mode), destroyer, skipUnobservedLifecycleEvents);
                 contexts.add(ctx);
+                if (mode == ContextMode.TOKEN) {
+                    tokenContexts.add(ctx);
+                } else if (mode == ContextMode.INDEXED) {
+                    indexedContexts.add(ctx);
+                }
                 event.addContext(ctx);
             }
         }
@@ -59,23 +129,202 @@ class WeldCDIExtension implements Extension {
                 event.addBean(bean);
             }
         }
+        if (propagatingExecutorThreads > 0) {
+            event.<ExecutorService> addBean()
+                    .types(ExecutorService.class, Executor.class, Object.class)
+                    .qualifiers(Propagating.Literal.INSTANCE, Any.Literal.INSTANCE)
+                    .scope(ApplicationScoped.class)
+                    .produceWith(i -> propagating(Executors.newFixedThreadPool(propagatingExecutorThreads, new PropagatingThreadFactory())))
+                    .disposeWith((executor, i) -> executor.shutdownNow());
+        }
+    }
+
+    void afterDeploymentValidation(@Observes AfterDeploymentValidation event, BeanManager beanManager) {
+        if (indexedContexts.isEmpty()) {
+            return;
+        }
+        // All the beans are known now - note that the container may wrap the beans added during AfterBeanDiscovery
+        List<Bean<?>> allBeans = new ArrayList<>(beanManager.getBeans(Object.class, Any.Literal.INSTANCE));
+        if (beans != null) {
+            allBeans.addAll(beans);
+        }
+        for (ContextImpl context : indexedContexts) {
+            List<Bean<?>> scopeBeans = new ArrayList<>();
+            for (Bean<?> bean : allBeans) {
+                if (bean.getScope().equals(context.getScope())) {
+                    scopeBeans.add(bean);
+                }
+            }
+            context.index(scopeBeans);
+        }
+    }
+
+    void beforeShutdown(@Observes BeforeShutdown event, BeanManager beanManager) {
+        // Reusable instances are kept until the container is shut down
+        for (ContextImpl context : contexts) {
+            context.destroyReusableInstances();
+        }
+        destroyer.shutdown();
+        if (beans != null) {
+            String containerId = BeanManagerProxy.unwrap(beanManager).getContextId();
+            for (Bean<?> bean : beans) {
+                if (bean instanceof MockBean && ((MockBean<?>) bean).getCreateCallback() instanceof ContainerShutdownAware) {
+                    ((ContainerShutdownAware) ((MockBean<?>) bean).getCreateCallback()).containerShutdown(containerId);
+                } else if (bean instanceof MockInterceptor) {
+                    ((MockInterceptor) bean).containerShutdown(containerId);
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the snapshot of the contexts bound to the current thread
+     */
+    ContextSnapshot captureContexts() {
+        return contexts.isEmpty() ? ContextSnapshot.EMPTY : ContextSnapshot.capture(contexts);
+    }
+
+    ExecutorService propagating(Executor executor) {
+        return new ContextPropagatingExecutorService(executor, this::captureContexts);
+    }
+
+    /**
+     *
+     * @param scopes the scopes, all the token-based contexts if empty
+     * @return a new token, the state of the token-based contexts for the given scopes is initialized
+     */
+    ContextToken openToken(Class<? extends Annotation>[] scopes) {
+        List<ContextImpl> selected = selectTokenContexts(scopes);
+        ContextToken token = new ContextToken(selected);
+        for (ContextImpl context : selected) {
+            context.open(token);
+        }
+        return token;
+    }
+
+    /**
+     *
+     * @param count
+     * @param scopes the scopes, all the token-based contexts if empty
+     * @return a group of new tokens
+     */
+    ContextTokenGroup openTokens(int count, Class<? extends Annotation>[] scopes) {
+        List<ContextImpl> selected = selectTokenContexts(scopes);
+        List<ContextToken> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ContextToken token = new ContextToken(selected);
+            for (ContextImpl context : selected) {
+                context.open(token);
+            }
+            tokens.add(token);
+        }
+        return new ContextTokenGroup(tokens);
+    }
+
+    private List<ContextImpl> selectTokenContexts(Class<? extends Annotation>[] scopes) {
+        if (tokenContexts.isEmpty()) {
+            throw new IllegalStateException("No context was activated with ContextMode.TOKEN");
+        }
+        if (scopes.length == 0) {
+            return tokenContexts;
+        }
+        List<ContextImpl> selected = new ArrayList<>(scopes.length);
+        for (Class<? extends Annotation> scope : scopes) {
+            ContextImpl context = getContext(scope);
+            if (context == null || !tokenContexts.contains(context)) {
+                throw new IllegalStateException("The context for " + scope.getName() + " was not activated with ContextMode.TOKEN");
+            }
+            selected.add(context);
+        }
+        return selected;
+    }
+
+    /**
+     *
+     * @return the report of slow destructions since the contexts were activated for the first time or since the report was cleared
+     */
+    DestructionReport getDestructionReport() {
+        return destroyer.getReport();
+    }
+
+    void clearDestructionReport() {
+        destroyer.clearReport();
+    }
+
+    /**
+     *
+     * @param scope
+     * @return the context activated for the given scope or {@code null}
+     */
+    ContextImpl getContext(Class<? extends Annotation> scope) {
+        for (ContextImpl context : contexts) {
+            if (context.getScope().equals(scope)) {
+                return context;
+            }
+        }
+        return null;
+    }
+
+    private ContextImpl.Storage createStorage(ContextMode mode) {
+        switch (mode) {
+            case SHARED:
+                return new ContextImpl.SharedStorage();
+            case TOKEN:
+                return new ContextImpl.TokenStorage();
+            case INDEXED:
+                // Slots are assigned after deployment validation
+                return new ContextImpl.ThreadLocalStorage();
+            default:
+                return new ContextImpl.ThreadLocalStorage();
+        }
     }
 
     public void activateContexts() {
+        if (nativeContexts != null) {
+            nativeContexts.activate(beanManager);
+        }
         if (contexts.isEmpty()) {
             return;
         }
+        if (!tokenContexts.isEmpty()) {
+            // The token-based contexts are activated for the current thread and all the threads it creates
+            new ContextToken(tokenContexts).bind();
+        }
         for (ContextImpl context : contexts) {
             context.activate();
         }
     }
 
     public void deactivateContexts() {
-        if (contexts.isEmpty()) {
-            return;
+        try {
+            for (ContextImpl context : contexts) {
+                context.deactivate();
+            }
+        } finally {
+            if (nativeContexts != null) {
+                nativeContexts.deactivate();
+            }
         }
-        for (ContextImpl context : contexts) {
-            context.deactivate();
+    }
+
+    private final class PropagatingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(() -> {
+                // A pool thread must not keep the context token inherited from the thread that created it, the state is propagated with each task
+                for (ContextImpl context : tokenContexts) {
+                    context.attach(null);
+                }
+                r.run();
+            }, "weld-junit-propagating-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         }
+
     }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.util.TypeLiteral;
+
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.jboss.weld.junit.ContextImpl.ContextualInstance;
+import org.jboss.weld.junit.ContextualSlots.InstanceMap;
+import org.junit.jupiter.api.Test;
+
+public class IndexedContextSlotsTest {
+
+    @Test
+    public void testBeansKnownAtDeploymentUseSlots() {
+        Set<Bean<?>> beans = Collections.singleton(MockBean.builder().types(new TypeLiteral<Set<String>>() {
+        }.getType()).scope(RequestScoped.class).create(c -> Collections.singleton("foo")).build());
+        WeldCDIExtension extension = new WeldCDIExtension(Collections.singleton(RequestScoped.class),
+                Collections.singletonMap(RequestScoped.class, ContextMode.INDEXED), beans, 0, DestructionPolicy.sequential(), false);
+        try (WeldContainer container = new Weld().disableDiscovery().addBeanClass(Counter.class).addExtension(extension).initialize()) {
+            extension.activateContexts();
+            try {
+                assertEquals(1, container.select(Counter.class).get().increment());
+                assertEquals("foo", container.select(new TypeLiteral<Set<String>>() {
+                }).get().iterator().next());
+                Map<Contextual<?>, ContextualInstance<?>> instances = extension.getContext(RequestScoped.class).getCurrentInstances();
+                assertTrue(instances instanceof InstanceMap);
+                assertEquals(2, instances.size());
+                // Both the managed bean and the mock bean were assigned a slot
+                assertEquals(0, ((InstanceMap) instances).fallbackSize());
+
+                // A contextual registered after bootstrap is stored in the fallback map
+                Contextual<String> contextual = new Contextual<String>() {
+
+                    @Override
+                    public String create(CreationalContext<String> creationalContext) {
+                        return "bar";
+                    }
+
+                    @Override
+                    public void destroy(String instance, CreationalContext<String> creationalContext) {
+                    }
+                };
+                assertEquals("bar", extension.getContext(RequestScoped.class).get(contextual, container.getBeanManager().createCreationalContext(null)));
+                assertEquals(1, ((InstanceMap) instances).fallbackSize());
+            } finally {
+                extension.deactivateContexts();
+            }
+        }
+    }
+
+    @RequestScoped
+    static class Counter {
+
+        private int count;
+
+        int increment() {
+            return ++count;
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class InvocationRecorderConcurrencyTest {
+
+    @Test
+    public void testZeroDurationInvocation() {
+        assertEquals(1, InvocationRecorder.getMaxConcurrency(new long[] { 5 }, new long[] { 5 }));
+        assertEquals(2, InvocationRecorder.getMaxConcurrency(new long[] { 5, 5 }, new long[] { 5, 5 }));
+    }
+
+    @Test
+    public void testOverlappingInvocations() {
+        assertEquals(0, InvocationRecorder.getMaxConcurrency(new long[0], new long[0]));
+        assertEquals(2, InvocationRecorder.getMaxConcurrency(new long[] { 1, 3, 8 }, new long[] { 4, 6, 9 }));
+        assertEquals(1, InvocationRecorder.getMaxConcurrency(new long[] { 1, 5 }, new long[] { 4, 9 }));
+    }
+
+    @Test
+    public void testAdjoiningInvocations() {
+        // The second invocation starts exactly when the first one ends
+        assertEquals(1, InvocationRecorder.getMaxConcurrency(new long[] { 1, 4 }, new long[] { 4, 9 }));
+        assertEquals(1, InvocationRecorder.getMaxConcurrency(new long[] { 5, 6 }, new long[] { 5, 6 }));
+    }
+
+}
@@ -29,6 +29,8 @@ import javax.enterprise.inject.spi.InjectionPoint;
 
 import org.jboss.weld.environment.se.Weld;
 import org.jboss.weld.junit.AbstractWeldInitiator;
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit.DestructionPolicy;
 import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.rules.MethodRule;
@@ -205,15 +207,18 @@ public class WeldInitiator extends AbstractWeldInitiator implements TestRule {
 
         @Override
         protected WeldInitiator build(Weld weld, List<Object> instancesToInject, Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans) {
-            return new WeldInitiator(weld, instancesToInject, scopesToActivate, beans, resources, getEjbFactory(), getPersistenceUnitFactory(), getPersistenceContextFactory());
+            return new WeldInitiator(weld, instancesToInject, scopesToActivate, beans, resources, getEjbFactory(), getPersistenceUnitFactory(), getPersistenceContextFactory(),
+                    getContextModes(), getPropagatingExecutorThreads(), getDestructionPolicy(), isSkipUnobservedLifecycleEvents());
         }
 
     }
 
     private WeldInitiator(Weld weld, List<Object> instancesToInject, Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans,
         Map<String, Object> resources, Function<InjectionPoint, Object> ejbFactory, Function<InjectionPoint, Object> persistenceUnitFactory,
-        Function<InjectionPoint, Object> persistenceContextFactory) {
-        super(weld, instancesToInject, scopesToActivate, beans, resources, ejbFactory, persistenceUnitFactory, persistenceContextFactory);
+        Function<InjectionPoint, Object> persistenceContextFactory, Map<Class<? extends Annotation>, ContextMode> contextModes,
+        int propagatingExecutorThreads, DestructionPolicy destructionPolicy, boolean skipUnobservedLifecycleEvents) {
+        super(weld, instancesToInject, scopesToActivate, beans, resources, ejbFactory, persistenceUnitFactory, persistenceContextFactory, contextModes,
+                propagatingExecutorThreads, destructionPolicy, skipUnobservedLifecycleEvents);
     }
 
     /**
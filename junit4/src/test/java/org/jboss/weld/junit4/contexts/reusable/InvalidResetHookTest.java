@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit4.contexts.reusable;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.inject.spi.DefinitionException;
+
+import org.jboss.weld.junit.Reusable;
+import org.jboss.weld.junit4.WeldInitiator;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+public class InvalidResetHookTest {
+
+    @Test
+    public void testInvalidResetHookDetectedDuringBootstrap() throws Throwable {
+        WeldInitiator weld = WeldInitiator.from(Counter.class).activate(RequestScoped.class).build();
+        try {
+            weld.apply(new Statement() {
+
+                @Override
+                public void evaluate() {
+                    fail("The container must not start");
+                }
+            }, Description.EMPTY).evaluate();
+            fail();
+        } catch (DefinitionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("A reset hook must not declare any parameter"));
+        }
+    }
+
+    @Reusable
+    @RequestScoped
+    static class Counter {
+
+        int count;
+
+        @Reusable.Reset
+        void reset(int value) {
+            count = value;
+        }
+
+    }
+
+}
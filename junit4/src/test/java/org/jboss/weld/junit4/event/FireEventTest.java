@@ -18,6 +18,11 @@ package org.jboss.weld.junit4.event;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import javax.enterprise.event.Event;
 
 import org.jboss.weld.junit4.Foo;
 import org.jboss.weld.junit4.WeldInitiator;
@@ -42,4 +47,14 @@ public class FireEventTest {
         assertNull(DummyObserver.MESSAGES.get(0).getBar());
     }
 
+    @Test
+    public void testCachedEventFired() {
+        DummyObserver.MESSAGES.clear();
+        Event<Foo> fooEvent = weld.eventFor(Foo.class);
+        assertSame(fooEvent, weld.eventFor(Foo.class));
+        fooEvent.fire(new Foo());
+        weld.fireAll(Arrays.asList(new Foo(), new Foo()));
+        assertEquals(3, DummyObserver.MESSAGES.size());
+    }
+
 }
@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit4.inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit4.WeldInitiator;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests that each injected instance has its own creational context.
+ */
+public class ReleaseInjectedInstanceTest {
+
+    static final List<Tracked> DESTROYED = new CopyOnWriteArrayList<>();
+
+    @Rule
+    public WeldInitiator weld = WeldInitiator.from(Tracked.class).inject(this).build();
+
+    @Inject
+    Tracked tracked;
+
+    @Test
+    public void testReleaseOneInstance() throws Exception {
+        DESTROYED.clear();
+        Target first = new Target();
+        Target second = new Target();
+        AutoCloseable firstReleaser = weld.injectNonContextual(first);
+        try (AutoCloseable secondReleaser = weld.injectNonContextual(second)) {
+            firstReleaser.close();
+            // Only the dependents of the first instance are destroyed
+            assertEquals(1, DESTROYED.size());
+            assertSame(first.tracked, DESTROYED.get(0));
+        }
+        assertEquals(2, DESTROYED.size());
+        assertSame(second.tracked, DESTROYED.get(1));
+    }
+
+    static class Target {
+
+        @Inject
+        Tracked tracked;
+
+    }
+
+    @Dependent
+    static class Tracked {
+
+        @PreDestroy
+        void destroy() {
+            DESTROYED.add(this);
+        }
+
+    }
+
+}
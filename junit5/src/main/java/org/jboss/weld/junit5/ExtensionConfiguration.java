@@ -0,0 +1,255 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5;
+
+import static org.jboss.weld.junit5.WeldJunit5Extension.GLOBAL_EXPLICIT_PARAM_INJECTION;
+import static org.jboss.weld.junit5.WeldJunit5Extension.GLOBAL_MOCK_UNSATISFIED_DEPENDENCIES;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.jboss.weld.util.collections.ImmutableList;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Resolved configuration of {@link WeldJunit5Extension} for a single test class. It is computed once per test class, right before the Weld container is
+ * started for the first time, and afterwards the extension only consults this immutable object.
+ *
+ * <p>
+ * All the settings are read through JUnit configuration parameters, i.e. they can be specified as launcher configuration parameters, JVM system properties
+ * or in the {@code junit-platform.properties} file.
+ * </p>
+ */
+final class ExtensionConfiguration {
+
+    private final TestInstance.Lifecycle lifecycle;
+
+    private final List<WeldJunitEnricher> enrichers;
+
+    private final boolean explicitParamInjection;
+
+    private final Field initiatorField;
+
+    private final boolean mockUnsatisfiedDependencies;
+
+    // Explicit parameter injection info for all methods declared on the test class hierarchy
+    private final Map<Method, ExplicitParams> explicitParams;
+
+    private ExtensionConfiguration(TestInstance.Lifecycle lifecycle, List<WeldJunitEnricher> enrichers, boolean explicitParamInjection,
+            Field initiatorField, boolean mockUnsatisfiedDependencies, Class<?> testClass) {
+        this.lifecycle = lifecycle;
+        this.enrichers = enrichers;
+        this.explicitParamInjection = explicitParamInjection;
+        this.initiatorField = initiatorField;
+        this.mockUnsatisfiedDependencies = mockUnsatisfiedDependencies;
+        this.explicitParams = findExplicitParams(testClass, explicitParamInjection);
+    }
+
+    /**
+     *
+     * @param context the class-level extension context
+     * @param allEnrichers all the discovered enrichers
+     * @return the resolved configuration
+     */
+    static ExtensionConfiguration resolve(ExtensionContext context, List<WeldJunitEnricher> allEnrichers) {
+        Class<?> testClass = context.getRequiredTestClass();
+        return new ExtensionConfiguration(context.getTestInstanceLifecycle().orElse(TestInstance.Lifecycle.PER_METHOD),
+                resolveEnrichers(context, allEnrichers), resolveExplicitParamInjection(context, testClass),
+                findInitiatorField(testClass), resolveMockUnsatisfiedDependencies(context, testClass), testClass);
+    }
+
+    /**
+     *
+     * @return the test instance lifecycle
+     */
+    TestInstance.Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     *
+     * @return the enabled enrichers, in the order they were discovered
+     */
+    List<WeldJunitEnricher> getEnrichers() {
+        return enrichers;
+    }
+
+    /**
+     *
+     * @return {@code true} if explicit parameter injection is enabled globally or for the test class
+     */
+    boolean isExplicitParamInjection() {
+        return explicitParamInjection;
+    }
+
+    /**
+     *
+     * @return the accessible field annotated with {@link WeldSetup} or {@code null} if no such field is declared
+     */
+    Field getInitiatorField() {
+        return initiatorField;
+    }
+
+    /**
+     *
+     * @return {@code true} if unsatisfied dependencies should be mocked
+     * @see MockUnsatisfiedDependencies
+     */
+    boolean isMockUnsatisfiedDependencies() {
+        return mockUnsatisfiedDependencies;
+    }
+
+    /**
+     *
+     * @param executable
+     * @return {@code true} if explicit parameter injection is required for the given method
+     */
+    boolean requiresExplicitParamInjection(Executable executable) {
+        ExplicitParams params = explicitParams.get(executable);
+        if (params == null) {
+            // Not discovered, e.g. a lifecycle method declared on an enclosing class
+            return explicitParamInjection || executable.isAnnotationPresent(ExplicitParamInjection.class);
+        }
+        return params.explicit;
+    }
+
+    /**
+     * A parameter which requires explicit injection and has no annotation at all cannot have a qualifier. Therefore, it's not necessary to consult the
+     * {@link javax.enterprise.inject.spi.BeanManager} at all.
+     *
+     * @param executable
+     * @param index
+     * @return {@code true} if the given parameter must not be resolved
+     */
+    boolean isExplicitParamWithoutAnnotations(Executable executable, int index) {
+        ExplicitParams params = explicitParams.get(executable);
+        if (params == null) {
+            return requiresExplicitParamInjection(executable) && executable.getParameters()[index].getAnnotations().length == 0;
+        }
+        return params.withoutAnnotations.get(index);
+    }
+
+    private static Map<Method, ExplicitParams> findExplicitParams(Class<?> testClass, boolean explicitParamInjection) {
+        Map<Method, ExplicitParams> explicitParams = new HashMap<>();
+        for (Class<?> clazz = testClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getParameterCount() == 0) {
+                    continue;
+                }
+                boolean explicit = explicitParamInjection || method.isAnnotationPresent(ExplicitParamInjection.class);
+                BitSet withoutAnnotations = new BitSet(method.getParameterCount());
+                if (explicit) {
+                    Parameter[] parameters = method.getParameters();
+                    for (int i = 0; i < parameters.length; i++) {
+                        if (parameters[i].getAnnotations().length == 0) {
+                            withoutAnnotations.set(i);
+                        }
+                    }
+                }
+                explicitParams.put(method, new ExplicitParams(explicit, withoutAnnotations));
+            }
+        }
+        return explicitParams;
+    }
+
+    private static List<WeldJunitEnricher> resolveEnrichers(ExtensionContext context, List<WeldJunitEnricher> allEnrichers) {
+        if (allEnrichers == null || allEnrichers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ImmutableList.Builder<WeldJunitEnricher> enabled = ImmutableList.builder();
+        for (WeldJunitEnricher enricher : allEnrichers) {
+            // An enricher is enabled unless explicitly disabled
+            if (context.getConfigurationParameter(enricher.getClass().getName()).map(Boolean::parseBoolean).orElse(true)) {
+                enabled.add(enricher);
+            }
+        }
+        return enabled.build();
+    }
+
+    private static boolean resolveExplicitParamInjection(ExtensionContext context, Class<?> testClass) {
+        // check the configuration parameter (e.g. a system property) which may have set the global explicit param injection
+        if (context.getConfigurationParameter(GLOBAL_EXPLICIT_PARAM_INJECTION).map(Boolean::parseBoolean).orElse(false)) {
+            return true;
+        }
+        // check class-level annotation
+        return testClass.isAnnotationPresent(ExplicitParamInjection.class);
+    }
+
+    private static boolean resolveMockUnsatisfiedDependencies(ExtensionContext context, Class<?> testClass) {
+        if (context.getConfigurationParameter(GLOBAL_MOCK_UNSATISFIED_DEPENDENCIES).map(Boolean::parseBoolean).orElse(false)) {
+            return true;
+        }
+        return testClass.isAnnotationPresent(MockUnsatisfiedDependencies.class);
+    }
+
+    private static Field findInitiatorField(Class<?> testClass) {
+        // all found fields which have @WeldSetup annotation
+        List<Field> foundInitiatorFields = new ArrayList<>();
+        // We will go through class hierarchy in search of @WeldSetup field (even private)
+        for (Class<?> clazz = testClass; clazz != null; clazz = clazz.getSuperclass()) {
+            // Find @WeldSetup field using getDeclaredFields() - this allows even for private fields
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(WeldSetup.class)) {
+                    foundInitiatorFields.add(field);
+                }
+            }
+        }
+        if (foundInitiatorFields.isEmpty()) {
+            return null;
+        }
+        // Multiple occurrences of @WeldSetup in the hierarchy will lead to an exception
+        if (foundInitiatorFields.size() > 1) {
+            throw new IllegalStateException(foundInitiatorFields.stream().map(f -> "Field type - " + f.getType() + " which is "
+                    + "in " + f.getDeclaringClass()).collect(Collectors.joining("\n", "Multiple @WeldSetup annotated fields found, "
+                    + "only one is allowed! Fields found:\n", "")));
+        }
+        Field field = foundInitiatorFields.get(0);
+        if (!field.isAccessible()) {
+            AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+                field.setAccessible(true);
+                return null;
+            });
+        }
+        return field;
+    }
+
+    private static final class ExplicitParams {
+
+        private final boolean explicit;
+
+        private final BitSet withoutAnnotations;
+
+        ExplicitParams(boolean explicit, BitSet withoutAnnotations) {
+            this.explicit = explicit;
+            this.withoutAnnotations = withoutAnnotations;
+        }
+
+    }
+
+}
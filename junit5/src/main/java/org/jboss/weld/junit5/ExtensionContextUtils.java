@@ -34,6 +34,7 @@ public class ExtensionContextUtils {
     private static final String CONTAINER = "weldContainer";
     private static final String EXPLICIT_PARAM_INJECTION = "explicitParamInjection";
     private static final String WELD_ENRICHERS = "weldEnrichers";
+    private static final String CONFIGURATION = "extensionConfiguration";
 
     private static Namespace EXTENSION_NAMESPACE;
 
@@ -84,6 +85,10 @@ public class ExtensionContextUtils {
      * Return boolean indicating whether explicit parameter injection is enabled
      */
     public static Boolean getExplicitInjectionInfoFromStore(ExtensionContext context) {
+        ExtensionConfiguration configuration = getConfigurationFromStore(context);
+        if (configuration != null) {
+            return configuration.isExplicitParamInjection();
+        }
         Boolean result = getTestStore(context).get(EXPLICIT_PARAM_INJECTION, Boolean.class);
         return (result == null) ? Boolean.FALSE : result;
     }
@@ -95,6 +100,27 @@ public class ExtensionContextUtils {
         getTestStore(context).put(EXPLICIT_PARAM_INJECTION, value);
     }
 
+    /**
+     * Can return null if the configuration wasn't resolved yet
+     *
+     * @param context {@link ExtensionContext} to search in
+     * @return {@link ExtensionConfiguration} or null if it wasn't stored yet
+     */
+    static ExtensionConfiguration getConfigurationFromStore(ExtensionContext context) {
+        return getTestStore(context).get(CONFIGURATION, ExtensionConfiguration.class);
+    }
+
+    /**
+     * Store {@link ExtensionConfiguration} to the {@link ExtensionContext.Store} of the test class so that it's shared by all test methods
+     */
+    static void setConfigurationToStore(ExtensionContext context, ExtensionConfiguration configuration) {
+        ExtensionContext classContext = context;
+        while (classContext.getTestMethod().isPresent() && classContext.getParent().isPresent()) {
+            classContext = classContext.getParent().get();
+        }
+        getTestStore(classContext).put(CONFIGURATION, configuration);
+    }
+
     /**
      * Can return null if WeldContainer isn't stored yet
      *
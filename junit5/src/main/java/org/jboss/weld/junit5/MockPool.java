@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jboss.weld.util.reflection.Reflections;
+
+/**
+ * A JVM-wide pool of Mockito mocks keyed by the raw type and qualifiers. Mockito is used reflectively so that it remains an optional dependency.
+ * <p>
+ * A mock is used exclusively by the container which acquired it until it's released. If all the pooled mocks for a given key are in use, e.g. if tests
+ * are executed concurrently, a new mock is created. Released mocks are reset and returned to the pool.
+ *
+ * @see MockUnsatisfiedDependencies
+ */
+final class MockPool {
+
+    private static final Logger LOGGER = Logger.getLogger(MockPool.class.getName());
+
+    // The mocks which are not used by any container
+    private static final ConcurrentMap<Key, Queue<Object>> IDLE = new ConcurrentHashMap<>();
+
+    // Used to cache the types which cannot be mocked
+    private static final Set<Class<?>> UNMOCKABLE = ConcurrentHashMap.newKeySet();
+
+    private static final Method MOCK;
+
+    private static final Method RESET;
+
+    static {
+        Method mock = null;
+        Method reset = null;
+        try {
+            Class<?> mockito = Class.forName("org.mockito.Mockito");
+            mock = mockito.getMethod("mock", Class.class);
+            reset = mockito.getMethod("reset", Object[].class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            LOGGER.fine("Mockito not available - unsatisfied dependencies cannot be mocked");
+        }
+        MOCK = mock;
+        RESET = reset;
+    }
+
+    private MockPool() {
+    }
+
+    /**
+     *
+     * @return {@code true} if Mockito is available
+     */
+    static boolean isAvailable() {
+        return MOCK != null;
+    }
+
+    /**
+     * The mock must be released with {@link #release(Collection)} when not needed anymore.
+     *
+     * @param type
+     * @param qualifiers
+     * @return a mock for the given type and qualifiers not used by any other container or {@code null} if the type cannot be mocked
+     */
+    static PooledMock acquire(Type type, Set<Annotation> qualifiers) {
+        if (MOCK == null) {
+            return null;
+        }
+        Class<?> rawType = Reflections.getRawType(type);
+        if (rawType == null || rawType.isPrimitive() || rawType.isArray() || UNMOCKABLE.contains(rawType)) {
+            return null;
+        }
+        Key key = new Key(rawType, qualifiers);
+        Queue<Object> idle = IDLE.get(key);
+        Object mock = idle != null ? idle.poll() : null;
+        if (mock == null) {
+            mock = createMock(rawType);
+            if (mock == null) {
+                UNMOCKABLE.add(rawType);
+                return null;
+            }
+        }
+        return new PooledMock(key, mock);
+    }
+
+    /**
+     * Resets the given mocks and returns them to the pool.
+     *
+     * @param mocks
+     */
+    static void release(Collection<PooledMock> mocks) {
+        if (mocks.isEmpty()) {
+            return;
+        }
+        Object[] instances = new Object[mocks.size()];
+        int idx = 0;
+        for (PooledMock mock : mocks) {
+            instances[idx++] = mock.get();
+        }
+        try {
+            RESET.invoke(null, new Object[] { instances });
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // A mock which was not reset must not be reused
+            LOGGER.log(Level.WARNING, "Unable to reset the pooled mocks", e);
+            return;
+        }
+        for (PooledMock mock : mocks) {
+            IDLE.computeIfAbsent(mock.key, k -> new ConcurrentLinkedQueue<>()).offer(mock.get());
+        }
+    }
+
+    private static Object createMock(Class<?> rawType) {
+        try {
+            return MOCK.invoke(null, rawType);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            LOGGER.log(Level.FINE, "Unable to mock " + rawType, e);
+            return null;
+        }
+    }
+
+    /**
+     * A mock acquired from the pool.
+     */
+    static final class PooledMock {
+
+        private final Key key;
+
+        private final Object mock;
+
+        private PooledMock(Key key, Object mock) {
+            this.key = key;
+            this.mock = mock;
+        }
+
+        Object get() {
+            return mock;
+        }
+
+    }
+
+    private static final class Key {
+
+        private final Class<?> rawType;
+
+        private final Set<Annotation> qualifiers;
+
+        private final int hashCode;
+
+        Key(Class<?> rawType, Set<Annotation> qualifiers) {
+            this.rawType = rawType;
+            this.qualifiers = qualifiers;
+            this.hashCode = 31 * rawType.hashCode() + qualifiers.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return rawType.equals(other.rawType) && qualifiers.equals(other.qualifiers);
+        }
+
+    }
+
+}
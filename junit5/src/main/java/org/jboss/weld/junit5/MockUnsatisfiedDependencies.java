@@ -0,0 +1,46 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Instructs {@link WeldJunit5Extension} to register a mock bean for each unsatisfied injection point. The mocks are created with Mockito which must be on
+ * the classpath. If Mockito is not available or a type cannot be mocked, the injection point remains unsatisfied.
+ *
+ * <p>
+ * The mocks are taken from a JVM-wide pool keyed by the raw required type and qualifiers. A mock is only used by a single container at a time - it's reset
+ * when the container is shut down and reused by the next test that needs it. If tests are executed concurrently, each container gets its own mock.
+ * </p>
+ *
+ * <p>
+ * Note that only the beans discovered by the container and the beans added by the initiator are taken into account when looking for unsatisfied injection
+ * points. The mocking may be also enabled globally with the {@link WeldJunit5Extension#GLOBAL_MOCK_UNSATISFIED_DEPENDENCIES} configuration parameter.
+ * </p>
+ *
+ * @since 2.0.2
+ */
+@Inherited
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MockUnsatisfiedDependencies {
+
+}
@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Default;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeShutdown;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.inject.spi.ProcessInjectionPoint;
+
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.MockPool.PooledMock;
+import org.jboss.weld.resolution.BeanTypeAssignabilityRules;
+
+/**
+ * Registers a mock bean for each unsatisfied injection point.
+ *
+ * @see MockUnsatisfiedDependencies
+ */
+class UnsatisfiedDependenciesExtension implements Extension {
+
+    // The beans added by the initiator are not visible before AfterBeanDiscovery completes
+    private final Set<Bean<?>> initiatorBeans;
+
+    private final List<InjectionPoint> injectionPoints;
+
+    // The mocks used by this container
+    private final List<PooledMock> mocks;
+
+    UnsatisfiedDependenciesExtension(Set<Bean<?>> initiatorBeans) {
+        this.initiatorBeans = initiatorBeans;
+        this.injectionPoints = Collections.synchronizedList(new ArrayList<>());
+        this.mocks = new ArrayList<>();
+    }
+
+    void processInjectionPoint(@Observes ProcessInjectionPoint<?, ?> event) {
+        InjectionPoint injectionPoint = event.getInjectionPoint();
+        if (!injectionPoint.isDelegate()) {
+            injectionPoints.add(injectionPoint);
+        }
+    }
+
+    void afterBeanDiscovery(@Observes AfterBeanDiscovery event, BeanManager beanManager) {
+        Map<Type, Set<Set<Annotation>>> mocked = new HashMap<>();
+        synchronized (injectionPoints) {
+            for (InjectionPoint injectionPoint : injectionPoints) {
+                Type type = injectionPoint.getType();
+                Set<Annotation> qualifiers = getRequiredQualifiers(injectionPoint);
+                if (mocked.computeIfAbsent(type, t -> new HashSet<>()).contains(qualifiers) || isSatisfied(beanManager, type, qualifiers)) {
+                    continue;
+                }
+                PooledMock mock = MockPool.acquire(type, qualifiers);
+                if (mock == null) {
+                    continue;
+                }
+                event.addBean(MockBean.builder().types(type, Object.class).qualifiers(qualifiers.toArray(new Annotation[qualifiers.size()]))
+                        .creating(mock.get()).build());
+                mocked.get(type).add(qualifiers);
+                mocks.add(mock);
+            }
+            injectionPoints.clear();
+        }
+    }
+
+    void beforeShutdown(@Observes BeforeShutdown event) {
+        // Reset the mocks and return them to the pool so that the next test starts with fresh mocks
+        MockPool.release(mocks);
+        mocks.clear();
+    }
+
+    private boolean isSatisfied(BeanManager beanManager, Type type, Set<Annotation> qualifiers) {
+        if (!beanManager.getBeans(type, qualifiers.toArray(new Annotation[qualifiers.size()])).isEmpty()) {
+            return true;
+        }
+        for (Bean<?> bean : initiatorBeans) {
+            if (BeanTypeAssignabilityRules.instance().matches(type, bean.getTypes()) && hasQualifiers(bean, qualifiers)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasQualifiers(Bean<?> bean, Set<Annotation> requiredQualifiers) {
+        for (Annotation required : requiredQualifiers) {
+            if (!required.annotationType().equals(Any.class) && !bean.getQualifiers().contains(required)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Annotation> getRequiredQualifiers(InjectionPoint injectionPoint) {
+        Set<Annotation> qualifiers = injectionPoint.getQualifiers();
+        if (qualifiers.isEmpty()) {
+            return Collections.singleton(Default.Literal.INSTANCE);
+        }
+        return qualifiers;
+    }
+
+}
@@ -17,6 +17,9 @@
 package org.jboss.weld.junit5;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +32,8 @@ import javax.enterprise.inject.spi.InjectionPoint;
 import org.jboss.weld.environment.se.Weld;
 import org.jboss.weld.environment.se.WeldContainer;
 import org.jboss.weld.junit.AbstractWeldInitiator;
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit.DestructionPolicy;
 
 /**
  * JUnit 5 initiator - can be used to customize the Weld SE container started by {@link WeldJunit5Extension}.
@@ -53,6 +58,13 @@ import org.jboss.weld.junit.AbstractWeldInitiator;
  */
 public class WeldInitiator extends AbstractWeldInitiator {
 
+    // The test instances of the current test, null if not registered yet
+    private ToInject testInstancesToInject;
+
+    private volatile boolean mockUnsatisfiedDependencies;
+
+    private UnsatisfiedDependenciesExtension unsatisfiedDependenciesExtension;
+
     /**
      * The container is configured with the result of {@link #createWeld()} method and the given bean classes are added. If any
      * of added classes is an extension, it is automatically recognized and enabled.
@@ -167,15 +179,27 @@ public class WeldInitiator extends AbstractWeldInitiator {
 
         @Override
         protected WeldInitiator build(Weld weld, List<Object> instancesToInject, Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans) {
-            return new WeldInitiator(weld, instancesToInject, scopesToActivate, beans, resources, getEjbFactory(), getPersistenceUnitFactory(), getPersistenceContextFactory());
+            return new WeldInitiator(weld, instancesToInject, scopesToActivate, beans, resources, getEjbFactory(), getPersistenceUnitFactory(), getPersistenceContextFactory(),
+                    getContextModes(), getPropagatingExecutorThreads(), getDestructionPolicy(), isSkipUnobservedLifecycleEvents());
         }
 
     }
 
+    /**
+     * Instructs the initiator to register a mock bean for each unsatisfied injection point.
+     *
+     * @see MockUnsatisfiedDependencies
+     */
+    void mockUnsatisfiedDependencies() {
+        this.mockUnsatisfiedDependencies = true;
+    }
+
     private WeldInitiator(Weld weld, List<Object> instancesToInject, Set<Class<? extends Annotation>> scopesToActivate, Set<Bean<?>> beans,
         Map<String, Object> resources, Function<InjectionPoint, Object> ejbFactory, Function<InjectionPoint, Object> persistenceUnitFactory,
-        Function<InjectionPoint, Object> persistenceContextFactory) {
-        super(weld, instancesToInject, scopesToActivate, beans, resources, ejbFactory, persistenceUnitFactory, persistenceContextFactory);
+        Function<InjectionPoint, Object> persistenceContextFactory, Map<Class<? extends Annotation>, ContextMode> contextModes,
+        int propagatingExecutorThreads, DestructionPolicy destructionPolicy, boolean skipUnobservedLifecycleEvents) {
+        super(weld, instancesToInject, scopesToActivate, beans, resources, ejbFactory, persistenceUnitFactory, persistenceContextFactory, contextModes,
+                propagatingExecutorThreads, destructionPolicy, skipUnobservedLifecycleEvents);
     }
 
     void shutdownWeld() {
@@ -186,14 +210,38 @@ public class WeldInitiator extends AbstractWeldInitiator {
         Weld weld = WeldInitiator.this.weld;
         if (weld == null) {
             weld = createWeld().addPackage(false, testInstance.getClass());
+            if (mockUnsatisfiedDependencies) {
+                weld.addExtension(new UnsatisfiedDependenciesExtension(beans));
+            }
+        } else if (mockUnsatisfiedDependencies && unsatisfiedDependenciesExtension == null) {
+            // The extension is only added once to a reused Weld instance
+            unsatisfiedDependenciesExtension = new UnsatisfiedDependenciesExtension(beans);
+            weld.addExtension(unsatisfiedDependenciesExtension);
         }
 
         return initWeldContainer(weld);
     }
 
-    void addObjectsToInjectInto(Set<Object> instancesToInjectInto) {
-        for (Object o : instancesToInjectInto) {
-            instancesToInject.add(createToInject(o));
+    /**
+     * Registers the test instances to inject into, ordered from outermost to innermost. The test instances of a {@code @Nested} hierarchy form a group,
+     * each instance is injected once per container and the dependent objects of the whole group are released at once. The group registered previously,
+     * e.g. the instances used for a previous test method, is replaced so that a shared initiator does not re-inject stale test instances. The instances
+     * registered with {@link Builder#inject(Object)} are still injected separately.
+     *
+     * @param testInstances
+     */
+    void addObjectsToInjectInto(List<Object> testInstances) {
+        if (testInstancesToInject != null) {
+            instancesToInject.remove(testInstancesToInject);
+        }
+        Set<Object> unique = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Object> group = new ArrayList<>(testInstances.size());
+        for (Object testInstance : testInstances) {
+            if (unique.add(testInstance)) {
+                group.add(testInstance);
+            }
         }
+        testInstancesToInject = createToInject(group);
+        instancesToInject.add(testInstancesToInject);
     }
 }
@@ -32,21 +32,18 @@ import javax.enterprise.inject.spi.BeanManager;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ServiceLoader;
-import java.util.stream.Collectors;
 
+import static org.jboss.weld.junit5.ExtensionContextUtils.getConfigurationFromStore;
 import static org.jboss.weld.junit5.ExtensionContextUtils.getContainerFromStore;
 import static org.jboss.weld.junit5.ExtensionContextUtils.getEnrichersFromStore;
-import static org.jboss.weld.junit5.ExtensionContextUtils.getExplicitInjectionInfoFromStore;
 import static org.jboss.weld.junit5.ExtensionContextUtils.getInitiatorFromStore;
+import static org.jboss.weld.junit5.ExtensionContextUtils.setConfigurationToStore;
 import static org.jboss.weld.junit5.ExtensionContextUtils.setContainerToStore;
 import static org.jboss.weld.junit5.ExtensionContextUtils.setEnrichersToStore;
-import static org.jboss.weld.junit5.ExtensionContextUtils.setExplicitInjectionInfoToStore;
 import static org.jboss.weld.junit5.ExtensionContextUtils.setInitiatorToStore;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_METHOD;
@@ -84,25 +81,21 @@ import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_METHOD;
 public class WeldJunit5Extension implements AfterAllCallback, BeforeAllCallback,
         BeforeEachCallback, AfterEachCallback, ParameterResolver {
 
-    // global system property
+    /**
+     * Configuration parameter which enables explicit parameter injection for all test classes. It can be specified as a JVM system property or in the
+     * {@code junit-platform.properties} file and is read once per test class.
+     *
+     * @see ExplicitParamInjection
+     */
     public static final String GLOBAL_EXPLICIT_PARAM_INJECTION = "org.jboss.weld.junit5.explicitParamInjection";
 
-    private static void storeExplicitParamResolutionInformation(ExtensionContext ec) {
-        // check system property which may have set the global explicit param injection
-        Boolean globalSettings = Boolean.valueOf(System.getProperty(GLOBAL_EXPLICIT_PARAM_INJECTION, "false"));
-        if (globalSettings) {
-            setExplicitInjectionInfoToStore(ec, true);
-            return;
-        }
-        // check class-level annotation
-        for (Annotation annotation : ec.getRequiredTestClass().getAnnotations()) {
-            if (annotation.annotationType().equals(ExplicitParamInjection.class)) {
-                setExplicitInjectionInfoToStore(ec, true);
-                break;
-            }
-        }
-
-    }
+    /**
+     * Configuration parameter which enables the mocking of unsatisfied dependencies for all test classes.
+     *
+     * @see MockUnsatisfiedDependencies
+     * @since 2.0.2
+     */
+    public static final String GLOBAL_MOCK_UNSATISFIED_DEPENDENCIES = "org.jboss.weld.junit5.mockUnsatisfiedDependencies";
 
     @Override
     public void afterAll(ExtensionContext context) throws Exception {
@@ -151,9 +144,14 @@ public class WeldJunit5Extension implements AfterAllCallback, BeforeAllCallback,
         if (getContainerFromStore(extensionContext) == null || (!(parameterContext.getDeclaringExecutable() instanceof Method))) {
             return false;
         }
+        ExtensionConfiguration configuration = getConfiguration(extensionContext);
+        // if we require explicit parameter injection and there are no annotations at all we don't need to resolve qualifiers
+        if (configuration.isExplicitParamWithoutAnnotations(parameterContext.getDeclaringExecutable(), parameterContext.getIndex())) {
+            return false;
+        }
         List<Annotation> qualifiers = resolveQualifiers(parameterContext, getContainerFromStore(extensionContext).getBeanManager());
         // if we require explicit parameter injection (via global settings or annotation) and there are no qualifiers we don't resolve it
-        if ((getExplicitInjectionInfoFromStore(extensionContext) || (methodRequiresExplicitParamInjection(parameterContext))) && qualifiers.isEmpty()) {
+        if (configuration.requiresExplicitParamInjection(parameterContext.getDeclaringExecutable()) && qualifiers.isEmpty()) {
             return false;
         } else {
             return getContainerFromStore(extensionContext).select(parameterContext.getParameter().getType(), qualifiers.toArray(new Annotation[qualifiers.size()]))
@@ -176,23 +174,23 @@ public class WeldJunit5Extension implements AfterAllCallback, BeforeAllCallback,
         return qualifiers;
     }
 
-    private boolean methodRequiresExplicitParamInjection(ParameterContext pc) {
-        for (Annotation annotation : pc.getDeclaringExecutable().getAnnotations()) {
-            if (annotation.annotationType().equals(ExplicitParamInjection.class)) {
-                return true;
-            }
+    private TestInstance.Lifecycle determineTestLifecycle(ExtensionContext ec) {
+        ExtensionConfiguration configuration = getConfigurationFromStore(ec);
+        if (configuration != null) {
+            return configuration.getLifecycle();
         }
-        return false;
+        // JUnit takes both the @TestInstance annotation and the default lifecycle configuration parameter into account
+        return ec.getTestInstanceLifecycle().orElse(TestInstance.Lifecycle.PER_METHOD);
     }
 
-    private TestInstance.Lifecycle determineTestLifecycle(ExtensionContext ec) {
-        // check the test for import org.junit.jupiter.api.TestInstance annotation
-        TestInstance annotation = ec.getRequiredTestClass().getAnnotation(TestInstance.class);
-        if (annotation != null) {
-            return annotation.value();
-        } else {
-            return TestInstance.Lifecycle.PER_METHOD;
+    private ExtensionConfiguration getConfiguration(ExtensionContext context) {
+        ExtensionConfiguration configuration = getConfigurationFromStore(context);
+        if (configuration == null) {
+            // resolved lazily so that the configuration parameters set in @BeforeAll methods are taken into account
+            configuration = ExtensionConfiguration.resolve(context, getEnrichersFromStore(context));
+            setConfigurationToStore(context, configuration);
         }
+        return configuration;
     }
 
     @Override
@@ -208,46 +206,21 @@ public class WeldJunit5Extension implements AfterAllCallback, BeforeAllCallback,
                 throw new IllegalStateException("ExtensionContext.getTestInstance() returned empty Optional!");
             }
 
-            // store info about explicit param injection, either from global settings or from annotation on the test class
-            storeExplicitParamResolutionInformation(context);
+            ExtensionConfiguration configuration = getConfiguration(context);
 
-            // all found fields which are WeldInitiator and have @WeldSetup annotation
-            List<Field> foundInitiatorFields = new ArrayList<>();
             WeldInitiator initiator = null;
-            // We will go through class hierarchy in search of @WeldSetup field (even private)
-            for (Class<?> clazz = testInstance.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
-                // Find @WeldSetup field using getDeclaredFields() - this allows even for private fields
-                for (Field field : clazz.getDeclaredFields()) {
-                    if (field.isAnnotationPresent(WeldSetup.class)) {
-                        Object fieldInstance;
-                        try {
-                            fieldInstance = field.get(testInstance);
-                        } catch (IllegalAccessException e) {
-                            // In case we cannot get to the field, we need to set accessibility as well
-                            AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
-                                field.setAccessible(true);
-                                return null;
-                            });
-                            fieldInstance = field.get(testInstance);
-                        }
-                        if (fieldInstance != null && fieldInstance instanceof WeldInitiator) {
-                            initiator = (WeldInitiator) fieldInstance;
-                            foundInitiatorFields.add(field);
-                        } else {
-                            // Field with other type than WeldInitiator was annotated with @WeldSetup
-                            throw new IllegalStateException("@WeldSetup annotation should only be used on a field of type"
-                                    + " WeldInitiator but was found on a field of type " + field.getType() + " which is declared "
-                                    + "in class " + field.getDeclaringClass());
-                        }
-                    }
+            Field initiatorField = configuration.getInitiatorField();
+            if (initiatorField != null) {
+                Object fieldInstance = initiatorField.get(testInstance);
+                if (fieldInstance instanceof WeldInitiator) {
+                    initiator = (WeldInitiator) fieldInstance;
+                } else {
+                    // Field with other type than WeldInitiator was annotated with @WeldSetup
+                    throw new IllegalStateException("@WeldSetup annotation should only be used on a field of type"
+                            + " WeldInitiator but was found on a field of type " + initiatorField.getType() + " which is declared "
+                            + "in class " + initiatorField.getDeclaringClass());
                 }
             }
-            // Multiple occurrences of @WeldSetup in the hierarchy will lead to an exception
-            if (foundInitiatorFields.size() > 1) {
-                throw new IllegalStateException(foundInitiatorFields.stream().map(f -> "Field type - " + f.getType() + " which is "
-                        + "in " + f.getDeclaringClass()).collect(Collectors.joining("\n", "Multiple @WeldSetup annotated fields found, "
-                        + "only one is allowed! Fields found:\n", "")));
-            }
 
             // at this point we can be sure that either no or exactly one WeldInitiator was found
             if (initiator == null) {
@@ -256,21 +229,21 @@ public class WeldJunit5Extension implements AfterAllCallback, BeforeAllCallback,
 
                 weldInit(context, weld, builder);
 
-                // Apply discovered enrichers
-                for (WeldJunitEnricher enricher : getEnrichersFromStore(context)) {
-                    String property = System.getProperty(enricher.getClass().getName());
-                    if (property == null || Boolean.parseBoolean(property)) {
-                        enricher.enrich(testInstance, context, weld, builder);
-                    }
+                // Apply enabled enrichers
+                for (WeldJunitEnricher enricher : configuration.getEnrichers()) {
+                    enricher.enrich(testInstance, context, weld, builder);
                 }
 
                 initiator = builder.build();
             }
+            if (configuration.isMockUnsatisfiedDependencies()) {
+                initiator.mockUnsatisfiedDependencies();
+            }
             setInitiatorToStore(context, initiator);
 
             // this ensures the test class is injected into
             // in case of nested tests, this also injects into any outer classes
-            initiator.addObjectsToInjectInto(context.getRequiredTestInstances().getAllInstances().stream().collect(Collectors.toSet()));
+            initiator.addObjectsToInjectInto(context.getRequiredTestInstances().getAllInstances());
 
             // and finally, init Weld
             setContainerToStore(context, initiator.initWeld(testInstance));
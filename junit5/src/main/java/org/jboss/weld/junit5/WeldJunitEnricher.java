@@ -27,8 +27,9 @@ import org.junit.jupiter.api.extension.ExtensionContext;
  * default test environment. The initial {@link Weld} instance is created using {@link WeldInitiator#createWeld()}.
  *
  * <p>
- * A system property with key equal to FQCN of a customizer class may be used to disable an enricher completely. E.g. for a class
- * {@code org.weld.FooEnricher} use {@code -Dorg.weld.FooEnricher=false} to disable the enricher.
+ * A JUnit configuration parameter (or a system property) with key equal to FQCN of a customizer class may be used to disable an enricher completely. E.g.
+ * for a class {@code org.weld.FooEnricher} use {@code -Dorg.weld.FooEnricher=false} to disable the enricher. The parameter is only read once per test
+ * class.
  * </p>
  *
  * @author Martin Kouba
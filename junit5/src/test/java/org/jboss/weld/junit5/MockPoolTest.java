@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.enterprise.inject.Default;
+import javax.enterprise.util.TypeLiteral;
+
+import org.jboss.weld.junit5.MockPool.PooledMock;
+import org.junit.jupiter.api.Test;
+
+public class MockPoolTest {
+
+    static final Set<Annotation> DEFAULT = Collections.singleton(Default.Literal.INSTANCE);
+
+    @Test
+    public void testMockInUseNotShared() {
+        PooledMock first = MockPool.acquire(Gauge.class, DEFAULT);
+        PooledMock second = MockPool.acquire(Gauge.class, DEFAULT);
+        assertNotNull(first);
+        assertNotNull(second);
+        // The first mock is used by another container
+        assertNotSame(first.get(), second.get());
+        when(((Gauge) first.get()).value()).thenReturn(10);
+        MockPool.release(Collections.singleton(first));
+        PooledMock third = MockPool.acquire(Gauge.class, DEFAULT);
+        assertSame(first.get(), third.get());
+        // The released mock was reset
+        assertEquals(0, ((Gauge) third.get()).value());
+        MockPool.release(Collections.singleton(second));
+        MockPool.release(Collections.singleton(third));
+    }
+
+    @Test
+    public void testParameterizedTypesShareRawType() {
+        Type strings = new TypeLiteral<List<String>>() {
+        }.getType();
+        Type integers = new TypeLiteral<List<Integer>>() {
+        }.getType();
+        PooledMock first = MockPool.acquire(strings, DEFAULT);
+        MockPool.release(Collections.singleton(first));
+        PooledMock second = MockPool.acquire(integers, DEFAULT);
+        // Mocks are created for the raw type
+        assertSame(first.get(), second.get());
+        MockPool.release(Collections.singleton(second));
+    }
+
+    public interface Gauge {
+
+        int value();
+
+    }
+
+}
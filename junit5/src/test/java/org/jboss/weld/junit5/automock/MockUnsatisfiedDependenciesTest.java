@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.automock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.MockUnsatisfiedDependencies;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@MockUnsatisfiedDependencies
+@ExtendWith(WeldJunit5Extension.class)
+public class MockUnsatisfiedDependenciesTest {
+
+    static Sensor previous;
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Engine.class).addBeans(MockBean.of((Valve) () -> true, Valve.class)).build();
+
+    @Inject
+    Engine engine;
+
+    @Inject
+    Sensor sensor;
+
+    @RepeatedTest(2)
+    public void testSensorMocked() {
+        if (previous != null) {
+            // The mock is reused
+            assertSame(previous, sensor);
+        }
+        previous = sensor;
+        // The mock was reset
+        assertEquals(0, engine.read());
+        when(sensor.read()).thenReturn(42);
+        assertEquals(42, engine.read());
+    }
+
+}
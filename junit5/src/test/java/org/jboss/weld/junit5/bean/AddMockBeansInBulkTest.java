@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.literal.NamedLiteral;
+import javax.enterprise.inject.spi.Bean;
+
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class AddMockBeansInBulkTest {
+
+    private static final int COUNT = 1000;
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Foo.class)
+            .addMockBeans(IntStream.range(0, COUNT).mapToObj(i -> MockBean.<Integer> builder().types(Integer.class).name("number" + i)
+                    .qualifiers(NamedLiteral.of("number" + i)).creating(i)))
+            .addMockBeans(Stream.of(MockBean.<Long> builder().types(Long.class).qualifiers(NamedLiteral.of("wide")).creating(1L),
+                    MockBean.<Short> builder().types(Short.class).qualifiers(NamedLiteral.of("wide")).creating((short) 1)))
+            .build();
+
+    @Test
+    public void testBeansAdded() {
+        Set<Bean<?>> beans = weld.getBeanManager().getBeans(Integer.class, Any.Literal.INSTANCE);
+        assertEquals(COUNT, beans.size());
+        assertEquals(42, weld.select(Integer.class, NamedLiteral.of("number42")).get());
+        // The beans share the set of bean types
+        Iterator<Bean<?>> iterator = beans.iterator();
+        Bean<?> first = iterator.next();
+        Bean<?> second = iterator.next();
+        assertEquals(first.getTypes(), second.getTypes());
+        assertSame(first.getTypes(), second.getTypes());
+    }
+
+    @Test
+    public void testQualifiersShared() {
+        Bean<?> longBean = weld.getBeanManager().resolve(weld.getBeanManager().getBeans(Long.class, NamedLiteral.of("wide")));
+        Bean<?> shortBean = weld.getBeanManager().resolve(weld.getBeanManager().getBeans(Short.class, NamedLiteral.of("wide")));
+        assertEquals(3, longBean.getQualifiers().size());
+        assertSame(longBean.getQualifiers(), shortBean.getQualifiers());
+    }
+
+}
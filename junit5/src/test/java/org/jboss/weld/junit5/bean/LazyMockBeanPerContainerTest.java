@@ -0,0 +1,64 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+
+import javax.enterprise.inject.spi.Bean;
+
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Tests that a lazy mock bean shared by several containers is reported per container.
+ */
+@ExtendWith(WeldJunit5Extension.class)
+@TestMethodOrder(OrderAnnotation.class)
+public class LazyMockBeanPerContainerTest {
+
+    static final Bean<?> SHARED = MockBean.lazy(() -> mock(Bar.class), Bar.class);
+
+    // A new container is started for each test method
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Foo.class).addBeans(SHARED).build();
+
+    @Test
+    @Order(1)
+    public void testMaterialized() {
+        assertNotNull(weld.select(Bar.class).get());
+        assertTrue(weld.getUnmaterializedMockBeans().isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    public void testNotMaterializedInAnotherContainer() {
+        assertEquals(Collections.singleton(SHARED), weld.getUnmaterializedMockBeans());
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.inject.spi.Bean;
+
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class LazyMockBeanTest {
+
+    static final AtomicInteger SUPPLIED = new AtomicInteger();
+
+    static final Bean<?> UNUSED = MockBean.lazy(() -> {
+        SUPPLIED.incrementAndGet();
+        return mock(Bar.class);
+    }, Bar.class);
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Foo.class).addBeans(MockBean.<Runnable> builder().types(Runnable.class).creatingLazily(() -> {
+        SUPPLIED.incrementAndGet();
+        return mock(Runnable.class);
+    }).build(), UNUSED).build();
+
+    @Test
+    public void testLazyMocks() {
+        SUPPLIED.set(0);
+        Runnable runnable = weld.select(Runnable.class).get();
+        // The instance is memoized
+        assertSame(runnable, weld.select(Runnable.class).get());
+        assertEquals(1, SUPPLIED.get());
+        assertEquals(Collections.singleton(UNUSED), weld.getUnmaterializedMockBeans());
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+
+import org.jboss.weld.junit.MockBean;
+import org.junit.jupiter.api.Test;
+
+public class MockBeanReadTest {
+
+    @Test
+    public void testReadMetadataIsNotShared() {
+        MockBean<BlueToDiscover> modified = MockBean.read(BlueToDiscover.class).addType(Foo.class).scope(RequestScoped.class).name("modified")
+                .build();
+        assertTrue(modified.getTypes().contains(Foo.class));
+
+        MockBean<BlueToDiscover> bean = MockBean.read(BlueToDiscover.class).build();
+        assertEquals(BlueToDiscover.class, bean.getBeanClass());
+        assertEquals("blue", bean.getName());
+        assertEquals(ApplicationScoped.class, bean.getScope());
+        assertTrue(bean.getTypes().contains(BlueToDiscover.class));
+        assertTrue(bean.getTypes().contains(Object.class));
+        assertFalse(bean.getTypes().contains(Foo.class));
+        // @Default, @Any and @Named
+        assertEquals(3, bean.getQualifiers().size());
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+@TestMethodOrder(OrderAnnotation.class)
+public class UnmanagedMockBeanTest {
+
+    static final MockBean<Gauge> GAUGE = MockBean.read(Gauge.class).build();
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Foo.class).addBeans(GAUGE).build();
+
+    @Order(1)
+    @Test
+    public void testDestroy() {
+        Gauge.DESTROYED.set(0);
+        Instance<Gauge> instance = weld.select(Gauge.class);
+        for (int i = 0; i < 10; i++) {
+            Gauge gauge = instance.get();
+            assertEquals("foo", gauge.getFoo().ping());
+            instance.destroy(gauge);
+        }
+        assertEquals(10, Gauge.DESTROYED.get());
+        // This instance is never destroyed
+        BeanManager beanManager = weld.getBeanManager();
+        beanManager.getReference(GAUGE, Gauge.class, beanManager.createCreationalContext(GAUGE));
+    }
+
+    @Order(2)
+    @Test
+    public void testInstancesDestroyedOnShutdown() {
+        // The same mock bean is used by a new container
+        assertEquals("foo", weld.select(Gauge.class).get().getFoo().ping());
+        assertTrue(Gauge.DESTROYED.get() >= 11);
+    }
+
+}
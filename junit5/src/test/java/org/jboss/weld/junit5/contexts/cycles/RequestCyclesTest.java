@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.cycles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.CycleReport;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class RequestCyclesTest {
+
+    private static final int CYCLES = 10_000;
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(CycleBean.class, RequestInitializedObserver.class).activate(RequestScoped.class).build();
+
+    @Inject
+    CycleBean bean;
+
+    @Test
+    public void testRequestCycles() {
+        // Create the instance for the test request
+        bean.ping();
+        CycleBean.CREATED.set(0);
+        CycleBean.DESTROYED.set(0);
+        RequestInitializedObserver.INITIALIZED.set(0);
+
+        CycleReport report = weld.runRequestCycles(CYCLES, () -> bean.ping());
+
+        assertEquals(CYCLES, report.getCycles());
+        assertEquals(RequestScoped.class, report.getScope());
+        assertTrue(report.getCyclesPerSecond() > 0);
+        assertEquals(CYCLES, CycleBean.CREATED.get());
+        assertEquals(CYCLES, CycleBean.DESTROYED.get());
+        assertEquals(CYCLES, RequestInitializedObserver.INITIALIZED.get());
+        // The test request is restored
+        bean.ping();
+        assertEquals(CYCLES, CycleBean.CREATED.get());
+    }
+
+    @Test
+    public void testScopeNotActivated() {
+        assertThrows(IllegalStateException.class, () -> weld.runCycles(SessionScoped.class, 1, () -> {
+        }));
+    }
+
+}
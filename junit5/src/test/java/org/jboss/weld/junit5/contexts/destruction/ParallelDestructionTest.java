@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.destruction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.DestructionPolicy;
+import org.jboss.weld.junit.DestructionReport;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class ParallelDestructionTest {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(SlowAlpha.class, SlowBravo.class, SlowCharlie.class).activate(RequestScoped.class)
+            .setDestructionPolicy(DestructionPolicy.parallel(3, Duration.ofSeconds(10)).reportSlowerThan(Duration.ofMillis(100))).build();
+
+    @Inject
+    SlowAlpha alpha;
+
+    @Inject
+    SlowBravo bravo;
+
+    @Inject
+    SlowCharlie charlie;
+
+    @Test
+    public void testParallelDestruction() {
+        long start = System.nanoTime();
+        weld.runRequestCycles(1, () -> {
+            alpha.ping();
+            bravo.ping();
+            charlie.ping();
+        });
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // Sequential destruction would take at least 3 * DESTROY_MILLIS
+        assertTrue(elapsed < 3 * SlowDestruction.DESTROY_MILLIS, "Destruction took " + elapsed + " ms");
+
+        DestructionReport report = weld.getDestructionReport();
+        assertEquals(3, report.getEntries().size(), report.toString());
+        for (DestructionReport.Entry entry : report.getEntries()) {
+            assertFalse(entry.isTimedOut());
+            assertTrue(entry.getDuration(TimeUnit.MILLISECONDS) >= 100);
+        }
+    }
+
+}
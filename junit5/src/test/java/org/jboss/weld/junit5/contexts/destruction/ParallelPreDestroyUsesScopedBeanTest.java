@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.destruction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.DestructionPolicy;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Tests that a {@code @PreDestroy} callback executed by a worker thread may use another bean in the same scope.
+ */
+@ExtendWith(WeldJunit5Extension.class)
+public class ParallelPreDestroyUsesScopedBeanTest {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(RequestResource.class, RequestAuditLog.class).activate(RequestScoped.class)
+            .setDestructionPolicy(DestructionPolicy.parallel(2, Duration.ofSeconds(10))).build();
+
+    @Inject
+    RequestResource resource;
+
+    @Inject
+    RequestAuditLog log;
+
+    @BeforeEach
+    void clear() {
+        AuditLog.MESSAGES.clear();
+    }
+
+    @Test
+    public void testPreDestroyUsesScopedBean() {
+        weld.runRequestCycles(1, () -> {
+            // Both instances are created so that they are destroyed in parallel
+            resource.ping();
+            log.log("opened");
+        });
+        assertEquals(2, AuditLog.MESSAGES.size(), AuditLog.MESSAGES.toString());
+        assertTrue(AuditLog.MESSAGES.contains("RequestAuditLog:closed"));
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.destruction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Tests that a {@code @PreDestroy} callback may use another bean in the same scope.
+ */
+@ExtendWith(WeldJunit5Extension.class)
+public class PreDestroyUsesScopedBeanTest {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator
+            .from(RequestResource.class, RequestAuditLog.class, SessionResource.class, SessionAuditLog.class)
+            .activate(RequestScoped.class).activate(ContextMode.SHARED, SessionScoped.class).build();
+
+    @Inject
+    RequestResource requestResource;
+
+    @Inject
+    SessionResource sessionResource;
+
+    @BeforeAll
+    static void clear() {
+        AuditLog.MESSAGES.clear();
+    }
+
+    @AfterAll
+    static void verifyDestroyed() {
+        assertEquals(2, AuditLog.MESSAGES.size(), AuditLog.MESSAGES.toString());
+        assertTrue(AuditLog.MESSAGES.contains("RequestAuditLog:closed"));
+        assertTrue(AuditLog.MESSAGES.contains("SessionAuditLog:closed"));
+    }
+
+    @Test
+    public void testInstancesCreated() {
+        requestResource.ping();
+        sessionResource.ping();
+        assertTrue(AuditLog.MESSAGES.isEmpty());
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.indexed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Collections;
+import java.util.Set;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.util.TypeLiteral;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class IndexedContextTest {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(IndexedBean.class)
+            .addBeans(MockBean.builder().types(new TypeLiteral<Set<String>>() {
+            }.getType()).scope(RequestScoped.class).create(c -> Collections.singleton("foo")).build())
+            .activate(ContextMode.INDEXED, RequestScoped.class).build();
+
+    @Inject
+    IndexedBean bean;
+
+    @Inject
+    Set<String> set;
+
+    @Test
+    public void testIndexedContext() {
+        String id = bean.getId();
+        assertEquals(id, bean.getId());
+        assertEquals(id, weld.select(IndexedBean.class).get().getId());
+        assertEquals("foo", set.iterator().next());
+        String[] cycleId = new String[1];
+        weld.runRequestCycles(1, () -> cycleId[0] = bean.getId());
+        assertNotEquals(id, cycleId[0]);
+        assertEquals(id, bean.getId());
+    }
+
+    @Test
+    public void testContextualWithoutSlot() {
+        Context context = weld.getBeanManager().getContext(RequestScoped.class);
+        Contextual<String> contextual = new Contextual<String>() {
+
+            @Override
+            public String create(CreationalContext<String> creationalContext) {
+                return "bar";
+            }
+
+            @Override
+            public void destroy(String instance, CreationalContext<String> creationalContext) {
+            }
+        };
+        assertNull(context.get(contextual));
+        assertEquals("bar", context.get(contextual, weld.getBeanManager().createCreationalContext(null)));
+        assertEquals("bar", context.get(contextual));
+    }
+
+}
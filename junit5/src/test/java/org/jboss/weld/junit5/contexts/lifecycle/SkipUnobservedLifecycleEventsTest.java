@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.lifecycle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit.ContextToken;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class SkipUnobservedLifecycleEventsTest {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(RequestObserver.class).activate(RequestScoped.class).activate(ContextMode.TOKEN, SessionScoped.class)
+            .skipUnobservedLifecycleEvents().build();
+
+    @Test
+    public void testObservedEventsAreFired() {
+        // The request context was activated before the test method
+        int initialized = RequestObserver.INITIALIZED.get();
+        assertTrue(initialized > 0);
+        weld.runRequestCycles(10, () -> {
+        });
+        assertEquals(initialized + 10, RequestObserver.INITIALIZED.get());
+    }
+
+    @Test
+    public void testUnobservedScope() {
+        // There is no observer for the session scope
+        try (ContextToken token = weld.openContextToken(SessionScoped.class)) {
+            token.run(() -> {
+            });
+        }
+    }
+
+}
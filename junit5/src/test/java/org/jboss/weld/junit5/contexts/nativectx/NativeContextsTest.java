@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.nativectx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.enterprise.context.Conversation;
+import javax.enterprise.context.ConversationScoped;
+import javax.enterprise.context.NormalScope;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
+
+import org.jboss.weld.context.bound.BoundRequestContext;
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.jboss.weld.junit5.contexts.Foo;
+import org.jboss.weld.junit5.contexts.Oof;
+import org.jboss.weld.util.ForwardingContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class NativeContextsTest {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Foo.class, Oof.class, Wizard.class)
+            .activate(ContextMode.NATIVE, RequestScoped.class, SessionScoped.class, ConversationScoped.class).build();
+
+    @Inject
+    Foo foo;
+
+    @Inject
+    Oof oof;
+
+    @Inject
+    Wizard wizard;
+
+    @Inject
+    Conversation conversation;
+
+    @Test
+    public void testNativeContextsActive() {
+        assertEquals(foo.getId(), weld.select(Foo.class).get().getId());
+        assertEquals(oof.getId(), weld.select(Oof.class).get().getId());
+        assertEquals(wizard.getId(), weld.select(Wizard.class).get().getId());
+        assertTrue(conversation.isTransient());
+
+        BeanManager beanManager = weld.getBeanManager();
+        assertTrue(ForwardingContext.unwrap(beanManager.getContext(RequestScoped.class)) instanceof BoundRequestContext);
+    }
+
+    @Test
+    public void testUnsupportedScope() {
+        assertThrows(IllegalArgumentException.class, () -> WeldInitiator.from(Foo.class).activate(ContextMode.NATIVE, CustomScoped.class));
+    }
+
+    @NormalScope
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.TYPE, ElementType.METHOD, ElementType.FIELD })
+    @interface CustomScoped {
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.propagation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.jboss.weld.junit5.WeldInitiator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a propagated thread-bound state is safe for concurrent creation of contextual instances.
+ */
+public abstract class AbstractConcurrentCreationTest {
+
+    static final int WORKERS = 4;
+
+    @Inject
+    SlowRequestBean bean;
+
+    abstract WeldInitiator weld();
+
+    @Test
+    public void testCreatedOnce() throws Exception {
+        SlowRequestBean.CREATED.set(0);
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        try {
+            // No instance exists yet - all the workers attempt to create it at the same time
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < WORKERS; i++) {
+                Callable<Integer> task = weld().propagating(() -> {
+                    start.await();
+                    return bean.ping();
+                });
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            Set<Integer> instances = new HashSet<>();
+            for (Future<Integer> future : futures) {
+                instances.add(future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, instances.size());
+            assertEquals(1, SlowRequestBean.CREATED.get());
+            // The propagated state is still bound to the current thread
+            assertEquals(instances.iterator().next().intValue(), bean.ping());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
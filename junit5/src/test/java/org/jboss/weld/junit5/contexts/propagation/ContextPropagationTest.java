@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.propagation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.Propagating;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class ContextPropagationTest {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(RequestBean.class).activate(RequestScoped.class).addPropagatingExecutor(2).build();
+
+    @Inject
+    RequestBean bean;
+
+    @Inject
+    @Propagating
+    ExecutorService propagatingExecutor;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void init() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testContextNotPropagated() {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> executor.submit(() -> bean.getId()).get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof ContextNotActiveException);
+    }
+
+    @Test
+    public void testPropagatingTasks() throws Exception {
+        String id = bean.getId();
+        assertEquals(id, executor.submit(weld.propagating(() -> bean.getId())).get(10, TimeUnit.SECONDS));
+        String[] ids = new String[1];
+        executor.submit(weld.propagating(() -> {
+            ids[0] = bean.getId();
+        })).get(10, TimeUnit.SECONDS);
+        assertEquals(id, ids[0]);
+        // The worker thread is restored after the task
+        ExecutionException e = assertThrows(ExecutionException.class, () -> executor.submit(() -> bean.getId()).get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof ContextNotActiveException);
+    }
+
+    @Test
+    public void testCompletableFuture() throws Exception {
+        String id = bean.getId();
+        assertEquals(id, CompletableFuture.supplyAsync(() -> bean.getId(), weld.propagating(executor))
+                .thenApplyAsync(i -> i + bean.getId(), weld.propagating(executor)).get(10, TimeUnit.SECONDS).substring(id.length()));
+    }
+
+    @Test
+    public void testInjectedPropagatingExecutor() throws Exception {
+        String id = bean.getId();
+        assertEquals(id, propagatingExecutor.submit(() -> bean.getId()).get(10, TimeUnit.SECONDS));
+        assertEquals(id, CompletableFuture.supplyAsync(() -> bean.getId(), propagatingExecutor).get(10, TimeUnit.SECONDS));
+    }
+
+}
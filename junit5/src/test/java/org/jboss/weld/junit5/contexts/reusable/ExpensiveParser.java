@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.reusable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+
+import org.jboss.weld.junit.Reusable;
+
+@Reusable
+@RequestScoped
+public class ExpensiveParser {
+
+    static final AtomicInteger CREATED = new AtomicInteger();
+
+    static final AtomicInteger RESET = new AtomicInteger();
+
+    static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    @PostConstruct
+    void init() {
+        CREATED.incrementAndGet();
+    }
+
+    @Reusable.Reset
+    void reset() {
+        RESET.incrementAndGet();
+    }
+
+    @PreDestroy
+    void destroy() {
+        DESTROYED.incrementAndGet();
+    }
+
+    public String parse(String value) {
+        return value.trim();
+    }
+
+}
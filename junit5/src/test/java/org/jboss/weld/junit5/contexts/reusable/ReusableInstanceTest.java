@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.reusable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class ReusableInstanceTest {
+
+    static final AtomicInteger TEMPLATES_CREATED = new AtomicInteger();
+
+    static final AtomicInteger TEMPLATES_RESET = new AtomicInteger();
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(ExpensiveParser.class).activate(RequestScoped.class)
+            .addBeans(MockBean.builder().types(Template.class).scope(RequestScoped.class).create(ctx -> {
+                TEMPLATES_CREATED.incrementAndGet();
+                return new Template();
+            }).reusable(t -> TEMPLATES_RESET.incrementAndGet()).build())
+            .build();
+
+    @Inject
+    ExpensiveParser parser;
+
+    @Inject
+    Template template;
+
+    @Test
+    public void testInstancesAreReused() {
+        assertEquals("foo", parser.parse(" foo "));
+        assertEquals("template", template.render());
+        int created = ExpensiveParser.CREATED.get();
+        int reset = ExpensiveParser.RESET.get();
+        int destroyed = ExpensiveParser.DESTROYED.get();
+        int templatesCreated = TEMPLATES_CREATED.get();
+        int templatesReset = TEMPLATES_RESET.get();
+
+        weld.runRequestCycles(100, () -> {
+            parser.parse("bar");
+            template.render();
+        });
+
+        // The first cycle creates a new instance which is then reused by the following cycles
+        assertEquals(created + 1, ExpensiveParser.CREATED.get());
+        assertEquals(reset + 100, ExpensiveParser.RESET.get());
+        assertEquals(destroyed, ExpensiveParser.DESTROYED.get());
+        assertEquals(templatesCreated + 1, TEMPLATES_CREATED.get());
+        assertEquals(templatesReset + 100, TEMPLATES_RESET.get());
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.sessions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit.ContextToken;
+import org.jboss.weld.junit.ContextTokenGroup;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.jboss.weld.junit5.contexts.Foo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class SessionSimulationTest {
+
+    private static final int SESSIONS = 100;
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Cart.class, Foo.class).activate(RequestScoped.class)
+            .activate(ContextMode.TOKEN, SessionScoped.class).build();
+
+    @Inject
+    Cart cart;
+
+    @Inject
+    Foo foo;
+
+    @Test
+    public void testSessions() {
+        cart.add("test");
+        String requestId = foo.getId();
+        Cart.DESTROYED.set(0);
+
+        try (ContextTokenGroup sessions = weld.openContextTokens(SESSIONS, SessionScoped.class)) {
+            assertEquals(SESSIONS, sessions.size());
+            for (int i = 0; i < sessions.size(); i++) {
+                int items = i;
+                sessions.get(i).run(() -> {
+                    for (int j = 0; j < items; j++) {
+                        cart.add("item" + j);
+                    }
+                    // The request context is not affected
+                    assertEquals(requestId, foo.getId());
+                });
+            }
+            // Switch between the sessions on the current thread
+            for (int i = sessions.size() - 1; i >= 0; i--) {
+                sessions.get(i).bind();
+                assertEquals(i, cart.size());
+            }
+            sessions.get(0).unbind();
+            assertThrows(ContextNotActiveException.class, () -> cart.size());
+        }
+        assertEquals(SESSIONS, Cart.DESTROYED.get());
+    }
+
+    @Test
+    public void testTestSessionRestored() {
+        cart.add("test");
+        try (ContextToken session = weld.openContextToken(SessionScoped.class)) {
+            session.run(() -> assertEquals(0, cart.size()));
+        }
+        assertEquals(1, cart.size());
+    }
+
+    @Test
+    public void testScopeNotTokenBased() {
+        assertThrows(IllegalStateException.class, () -> weld.openContextToken(RequestScoped.class));
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.shared;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class SharedContextTest {
+
+    private static final int THREADS = 8;
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(SharedRequestBean.class).activate(ContextMode.SHARED, RequestScoped.class).build();
+
+    @Inject
+    SharedRequestBean bean;
+
+    @Test
+    public void testContextSharedByAllThreads() throws Exception {
+        SharedRequestBean.CREATED.set(0);
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> ids = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                ids.add(executor.submit(() -> {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    return bean.getId();
+                }));
+            }
+            Set<String> distinctIds = new HashSet<>();
+            for (Future<String> id : ids) {
+                distinctIds.add(id.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, distinctIds.size());
+            assertEquals(1, SharedRequestBean.CREATED.get());
+            // The test thread sees the same instance
+            assertEquals(distinctIds.iterator().next(), bean.getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
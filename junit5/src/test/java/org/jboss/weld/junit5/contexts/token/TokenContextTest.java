@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.contexts.token;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit.ContextMode;
+import org.jboss.weld.junit.ContextToken;
+import org.jboss.weld.junit.Propagating;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(WeldJunit5Extension.class)
+public class TokenContextTest {
+
+    private static final int TASKS = 1000;
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(TokenRequestBean.class).activate(ContextMode.TOKEN, RequestScoped.class).addPropagatingExecutor(1)
+            .build();
+
+    @Inject
+    TokenRequestBean bean;
+
+    @Inject
+    @Propagating
+    ExecutorService propagatingExecutor;
+
+    @Test
+    public void testTokenInheritedByNewThread() throws InterruptedException {
+        String id = bean.getId();
+        AtomicReference<String> threadId = new AtomicReference<>();
+        Thread thread = new Thread(() -> threadId.set(bean.getId()));
+        thread.start();
+        thread.join(10000);
+        assertEquals(id, threadId.get());
+    }
+
+    @Test
+    public void testTokenPerTask() throws Exception {
+        TokenRequestBean.DESTROYED.set(0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            String testId = bean.getId();
+            Set<String> ids = ConcurrentHashMap.newKeySet();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < TASKS; i++) {
+                futures.add(executor.submit(() -> {
+                    try (ContextToken token = weld.openContextToken()) {
+                        token.run(() -> {
+                            String id = bean.getId();
+                            assertEquals(id, bean.getId());
+                            ids.add(id);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(TASKS, ids.size());
+            assertFalse(ids.contains(testId));
+            assertEquals(TASKS, TokenRequestBean.DESTROYED.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTokensSubmittedToOnePool() throws Exception {
+        ExecutorService executor = weld.propagating(Executors.newSingleThreadExecutor());
+        try {
+            assertTokensIsolated(executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTokensIsolated(propagatingExecutor);
+    }
+
+    private void assertTokensIsolated(ExecutorService executor) throws Exception {
+        try (ContextToken first = weld.openContextToken(); ContextToken second = weld.openContextToken()) {
+            String firstId = first.call(() -> bean.getId());
+            String secondId = second.call(() -> bean.getId());
+            // The single worker thread is created while the first token is bound
+            assertEquals(firstId, first.call(() -> executor.submit(() -> bean.getId()).get(10, TimeUnit.SECONDS)));
+            assertEquals(secondId, second.call(() -> executor.submit(() -> bean.getId()).get(10, TimeUnit.SECONDS)));
+            // A task submitted without any token bound must not use the token inherited by the worker thread
+            AtomicReference<Object> result = new AtomicReference<>();
+            Thread thread = new Thread(() -> {
+                ContextToken none = weld.openContextToken();
+                none.bind();
+                none.unbind();
+                none.close();
+                try {
+                    result.set(executor.submit(() -> {
+                        try {
+                            return bean.getId();
+                        } catch (ContextNotActiveException e) {
+                            return e;
+                        }
+                    }).get(10, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    result.set(e.toString());
+                }
+            });
+            thread.start();
+            thread.join(10000);
+            assertTrue(result.get() instanceof ContextNotActiveException, String.valueOf(result.get()));
+        }
+    }
+
+}
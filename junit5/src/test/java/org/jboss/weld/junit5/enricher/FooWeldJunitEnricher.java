@@ -21,6 +21,7 @@ import org.jboss.weld.junit5.WeldInitiator.Builder;
 import org.jboss.weld.junit5.WeldJunitEnricher;
 import org.jboss.weld.junit5.basic.Foo;
 import org.jboss.weld.junit5.enricher.disabled.WeldJunitEnricherDisabledTest;
+import org.jboss.weld.junit5.enricher.once.WeldJunitEnricherResolvedOnceTest;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
 
@@ -30,7 +31,8 @@ public class FooWeldJunitEnricher implements WeldJunitEnricher {
     @Override
     public void enrich(Object testInstance, ExtensionContext context, Weld weld,
                        Builder weldInitiatorBuilder) {
-        if (WeldJunitEnricherTest.class.equals(testInstance.getClass()) || WeldJunitEnricherDisabledTest.class.equals(testInstance.getClass())) {
+        if (WeldJunitEnricherTest.class.equals(testInstance.getClass()) || WeldJunitEnricherDisabledTest.class.equals(testInstance.getClass())
+                || WeldJunitEnricherResolvedOnceTest.class.equals(testInstance.getClass())) {
             weld.addBeanClass(Foo.class);
         }
     }
@@ -16,6 +16,12 @@
  */
 package org.jboss.weld.junit5.event;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.enterprise.event.Event;
+
 import org.jboss.weld.junit5.WeldInitiator;
 import org.jboss.weld.junit5.WeldJunit5Extension;
 import org.jboss.weld.junit5.WeldSetup;
@@ -43,4 +49,37 @@ public class FireEventTest {
         Assertions.assertNull(DummyObserver.MESSAGES.get(0).getBar());
     }
 
+    @Test
+    public void testCachedEventFired() {
+        DummyObserver.MESSAGES.clear();
+        Event<Foo> fooEvent = weld.eventFor(Foo.class);
+        Assertions.assertSame(fooEvent, weld.eventFor(Foo.class));
+        fooEvent.fire(new Foo());
+        fooEvent.fire(new Foo());
+        Assertions.assertEquals(2, DummyObserver.MESSAGES.size());
+    }
+
+    @Test
+    public void testFireAll() {
+        DummyObserver.MESSAGES.clear();
+        List<Object> payloads = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            payloads.add(new Foo());
+            // Not observed
+            payloads.add("foo");
+        }
+        weld.fireAll(payloads);
+        Assertions.assertEquals(100, DummyObserver.MESSAGES.size());
+    }
+
+    @Test
+    public void testFireAllNullPayload() {
+        DummyObserver.MESSAGES.clear();
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> weld.fireAll(Arrays.asList(new Foo(), null, new Foo())));
+        Assertions.assertEquals("Event payload must not be null: 1", e.getMessage());
+        // Nothing is fired
+        Assertions.assertEquals(0, DummyObserver.MESSAGES.size());
+    }
+
 }
@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.inject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.jboss.weld.junit5.basic.Foo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Tests the injection of fields and initializer methods of a test instance.
+ */
+@ExtendWith(WeldJunit5Extension.class)
+public class InjectTest extends InjectTestBase {
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.of(Foo.class, Baz.class);
+
+    @Inject
+    Foo foo;
+
+    @Inject
+    Baz baz;
+
+    @Inject
+    Instance<Foo> fooInstance;
+
+    @Inject
+    Event<String> event;
+
+    Foo initializerFoo;
+
+    Baz initializerBaz;
+
+    @Inject
+    void init(Foo foo, Baz baz) {
+        initializerFoo = foo;
+        initializerBaz = baz;
+        injected.add("sub");
+    }
+
+    @AfterAll
+    static void verifyDependentDestroyed() {
+        assertTrue(Baz.DESTROYED.get());
+    }
+
+    @Test
+    public void testInjection() {
+        assertEquals("baz", foo.getBar());
+        assertEquals("baz", baseFoo.getBar());
+        assertSame(foo, initializerFoo);
+        assertTrue(fooInstance.isResolvable());
+        assertNotNull(event);
+        // superclass initializers are called first
+        assertEquals(Arrays.asList("base", "sub"), injected);
+        // InjectionPoint metadata is available to dependent beans
+        assertEquals("baz", baz.getInjectionPointMemberName());
+        assertEquals("init", initializerBaz.getInjectionPointMemberName());
+        assertFalse(Baz.DESTROYED.get());
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.interceptor;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.util.AnnotationLiteral;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.weld.junit.FaultInjector;
+import org.jboss.weld.junit.LatencyHistogram;
+import org.jboss.weld.junit.MockInterceptor;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.jboss.weld.junit5.interceptor.RecordingInterceptorTest.StubInvocationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@EnableWeld
+public class FaultInjectionTest {
+
+    static final FaultInjector SLOW = FaultInjector.replayedDelay(TimeUnit.MILLISECONDS, 20, 0);
+
+    static final FaultInjector BROKEN = FaultInjector.noDelay().failing(1.0, () -> new IOException("Connection reset"));
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Backend.class)
+            .addBeans(MockInterceptor.withBindings(Slow.Literal.INSTANCE).injectingFaults(SLOW),
+                    MockInterceptor.withBindings(Broken.Literal.INSTANCE).injectingFaults(BROKEN))
+            .build();
+
+    @BeforeEach
+    public void reset() {
+        SLOW.reset();
+        BROKEN.reset();
+    }
+
+    @Test
+    public void testReplayedDelay() {
+        Backend backend = weld.select(Backend.class).get();
+        long start = System.nanoTime();
+        assertEquals("pong", backend.ping());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals("pong", backend.ping());
+        assertEquals(2, SLOW.getInvocations());
+        assertEquals(0, SLOW.getInjectedFailures());
+    }
+
+    @Test
+    public void testReplayedLatencyProfile() throws Exception {
+        LatencyHistogram profile = new LatencyHistogram();
+        for (int i = 0; i < 5; i++) {
+            profile.record(5, TimeUnit.MILLISECONDS);
+        }
+        FaultInjector injector = FaultInjector.replayedDelay(profile);
+        // Recorded after the injector was created and so never replayed
+        profile.record(10, TimeUnit.SECONDS);
+        InvocationContext ctx = new StubInvocationContext(Backend.class.getDeclaredMethod("ping"));
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            injector.invoke(ctx, null);
+            long elapsed = System.nanoTime() - start;
+            assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(5));
+            assertTrue(elapsed < TimeUnit.SECONDS.toNanos(5));
+        }
+        assertEquals(3, injector.getInvocations());
+        // Nothing recorded - no delay
+        FaultInjector.replayedDelay(new LatencyHistogram()).invoke(ctx, null);
+    }
+
+    @Test
+    public void testInjectedFailure() {
+        Backend backend = weld.select(Backend.class).get();
+        IOException e = assertThrows(IOException.class, () -> backend.fetch());
+        assertEquals("Connection reset", e.getMessage());
+        assertEquals(0, backend.fetched);
+        assertEquals(1, BROKEN.getInjectedFailures());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> FaultInjector.uniformDelay(10, 5, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> FaultInjector.fixedDelay(-1, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> FaultInjector.noDelay().failing(1.5));
+        assertThrows(IllegalArgumentException.class, () -> FaultInjector.replayedDelay(TimeUnit.MILLISECONDS));
+    }
+
+    static class Backend {
+
+        int fetched;
+
+        @Slow
+        String ping() {
+            return "pong";
+        }
+
+        @Broken
+        String fetch() throws IOException {
+            fetched++;
+            return "data";
+        }
+
+    }
+
+    @Target({ TYPE, METHOD })
+    @Retention(RUNTIME)
+    @InterceptorBinding
+    static @interface Slow {
+
+        @SuppressWarnings("serial")
+        static final class Literal extends AnnotationLiteral<Slow> implements Slow {
+
+            public static final Literal INSTANCE = new Literal();
+
+        };
+
+    }
+
+    @Target({ TYPE, METHOD })
+    @Retention(RUNTIME)
+    @InterceptorBinding
+    static @interface Broken {
+
+        @SuppressWarnings("serial")
+        static final class Literal extends AnnotationLiteral<Broken> implements Broken {
+
+            public static final Literal INSTANCE = new Literal();
+
+        };
+
+    }
+
+}
@@ -20,6 +20,7 @@ import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.TYPE;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.lang.annotation.Documented;
@@ -28,6 +29,7 @@ import java.lang.annotation.Target;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.InterceptionType;
 import javax.enterprise.inject.spi.Interceptor;
 import javax.enterprise.util.AnnotationLiteral;
@@ -47,10 +49,13 @@ public class MockInterceptorTest {
 
     private List<String> postConstructs;
 
+    private List<Bean<?>> interceptedBeans;
+
     @WeldSetup
     public WeldInitiator weld = WeldInitiator.from(Foo.class).addBeans(
             MockInterceptor.withBindings(FooBinding.Literal.INSTANCE).aroundInvoke((ctx, b) -> {
                 aroundInvokes.add(b.getBeanClass().getName());
+                interceptedBeans.add(b);
                 return ctx.proceed();
                 }),
             // This interceptor is disabled
@@ -63,6 +68,7 @@ public class MockInterceptorTest {
     public void setup() {
         aroundInvokes = new ArrayList<>();
         postConstructs = new ArrayList<>();
+        interceptedBeans = new ArrayList<>();
     }
 
     @Test
@@ -76,6 +82,15 @@ public class MockInterceptorTest {
         assertEquals(Foo.class.getName(), postConstructs.get(0));
     }
 
+    @Test
+    public void testInterceptorInstanceShared() {
+        assertTrue(weld.select(Foo.class).get().ping());
+        assertTrue(weld.select(Foo.class).get().ping());
+        assertEquals(2, interceptedBeans.size());
+        // The interceptor instance is cached per container and intercepted bean
+        assertSame(interceptedBeans.get(0), interceptedBeans.get(1));
+    }
+
     @Test
     public void testDisabledInterceptor() {
         List<Interceptor<?>> interceptors = weld.getBeanManager().resolveInterceptors(InterceptionType.AROUND_INVOKE, FooBinding.Literal.INSTANCE);
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.interceptor;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.util.AnnotationLiteral;
+import javax.interceptor.InterceptorBinding;
+
+import org.jboss.weld.junit.InvocationProfiler;
+import org.jboss.weld.junit.LatencyHistogram;
+import org.jboss.weld.junit.MockInterceptor;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@EnableWeld
+public class ProfilingInterceptorTest {
+
+    static final InvocationProfiler PROFILER = new InvocationProfiler();
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Sleeper.class)
+            .addBeans(MockInterceptor.withBindings(Profiled.Literal.INSTANCE).profiling(PROFILER)).build();
+
+    @BeforeEach
+    public void reset() {
+        PROFILER.reset();
+    }
+
+    @Test
+    public void testLatencyRecorded() throws InterruptedException {
+        Sleeper sleeper = weld.select(Sleeper.class).get();
+        for (int i = 0; i < 3; i++) {
+            sleeper.sleep(5);
+        }
+        sleeper.noop();
+        LatencyHistogram sleep = PROFILER.getHistogram(Sleeper.class, "sleep");
+        assertNotNull(sleep);
+        assertEquals(3, sleep.getCount());
+        assertTrue(sleep.getMin(TimeUnit.MILLISECONDS) >= 5);
+        assertTrue(sleep.getPercentile(50, TimeUnit.MILLISECONDS) >= 5);
+        assertTrue(sleep.getPercentile(100, TimeUnit.NANOSECONDS) <= sleep.getMax(TimeUnit.NANOSECONDS));
+        assertEquals(1, PROFILER.getHistogram(Sleeper.class, "noop").getCount());
+        assertEquals(2, PROFILER.getHistograms().size());
+        // The slowest method is reported first
+        assertTrue(PROFILER.getReport().startsWith("Sleeper#sleep"));
+    }
+
+    @Test
+    public void testFailedInvocationRecorded() {
+        Sleeper sleeper = weld.select(Sleeper.class).get();
+        assertThrows(IllegalStateException.class, () -> sleeper.fail());
+        assertEquals(1, PROFILER.getHistogram(Sleeper.class, "fail").getCount());
+        assertNull(PROFILER.getHistogram(Sleeper.class, "sleep"));
+    }
+
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i, TimeUnit.MICROSECONDS);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1, histogram.getMin(TimeUnit.MICROSECONDS));
+        assertEquals(1000, histogram.getMax(TimeUnit.MICROSECONDS));
+        // Relative error of a bucket is bounded by 1/32
+        long median = histogram.getPercentile(50, TimeUnit.MICROSECONDS);
+        assertTrue(median >= 500 && median <= 500 + 500 / 32 + 1, "Median: " + median);
+        assertEquals(1000, histogram.getPercentile(100, TimeUnit.MICROSECONDS));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101, TimeUnit.MICROSECONDS));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Profiled
+    static class Sleeper {
+
+        void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+
+        void noop() {
+        }
+
+        void fail() {
+            throw new IllegalStateException();
+        }
+
+    }
+
+    @Target({ TYPE, METHOD })
+    @Retention(RUNTIME)
+    @InterceptorBinding
+    static @interface Profiled {
+
+        @SuppressWarnings("serial")
+        static final class Literal extends AnnotationLiteral<Profiled> implements Profiled {
+
+            public static final Literal INSTANCE = new Literal();
+
+        };
+
+    }
+
+}
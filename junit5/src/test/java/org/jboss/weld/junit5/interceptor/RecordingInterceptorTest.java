@@ -0,0 +1,216 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.interceptor;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.util.AnnotationLiteral;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.weld.junit.InvocationRecorder;
+import org.jboss.weld.junit.InvocationRecorder.Invocation;
+import org.jboss.weld.junit.MockInterceptor;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@EnableWeld
+public class RecordingInterceptorTest {
+
+    static final InvocationRecorder RECORDER = InvocationRecorder.builder().capacity(8).recordArguments().build();
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(Worker.class).addBeans(MockInterceptor.withBindings(Recorded.Literal.INSTANCE).recording(RECORDER))
+            .build();
+
+    @BeforeEach
+    public void reset() {
+        RECORDER.reset();
+    }
+
+    @Test
+    public void testConcurrentInvocations() throws Exception {
+        Worker worker = weld.select(Worker.class).get();
+        CountDownLatch latch = new CountDownLatch(3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> worker.await(latch)));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        RECORDER.assertInvoked(Worker.class, "await", 3);
+        RECORDER.assertNotInvoked(Worker.class, "work");
+        // All the invocations were waiting for each other
+        assertEquals(3, RECORDER.getMaxConcurrency(Worker.class, "await"));
+        assertThrows(AssertionError.class, () -> RECORDER.assertMaxConcurrency(Worker.class, "await", 2));
+        for (Invocation invocation : RECORDER.getInvocations(Worker.class, "await")) {
+            assertTrue(invocation.getThreadName().startsWith("pool-"));
+            assertEquals(Worker.class, invocation.getBean().getBeanClass());
+        }
+    }
+
+    @Test
+    public void testRingBufferOverwritesOldest() {
+        Worker worker = weld.select(Worker.class).get();
+        long total = RECORDER.getTotalCount();
+        for (int i = 0; i < 10; i++) {
+            worker.work(i);
+        }
+        assertThrows(IllegalStateException.class, () -> worker.work(-1));
+        List<Invocation> invocations = RECORDER.getInvocations();
+        assertEquals(8, invocations.size());
+        assertEquals(total + 11, RECORDER.getTotalCount());
+        assertArrayEquals(new Object[] { 3 }, invocations.get(0).getArguments());
+        assertTrue(invocations.get(7).isFailed());
+        assertEquals(7, RECORDER.getInvocations(i -> !i.isFailed()).size());
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        Path file = Files.createTempFile("invocations", ".bin");
+        try (InvocationRecorder recorder = InvocationRecorder.builder().capacity(2).spillTo(file, 4).build()) {
+            InvocationContext ctx = new StubInvocationContext(Object.class.getMethod("toString"));
+            for (int i = 0; i < 6; i++) {
+                recorder.invoke(ctx, null);
+            }
+            assertEquals(2, recorder.getInvocations().size());
+            List<Invocation> spilled = new ArrayList<>();
+            recorder.forEachSpilled(spilled::add);
+            assertEquals(4, spilled.size());
+            assertEquals("toString", spilled.get(3).getMethod().getName());
+            assertEquals(Thread.currentThread().getId(), spilled.get(3).getThreadId());
+            assertEquals(1, recorder.getMethodIds().size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static class StubInvocationContext implements InvocationContext {
+
+        private final Method method;
+
+        StubInvocationContext(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public Object getTimer() {
+            return null;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Constructor<?> getConstructor() {
+            return null;
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return new Object[0];
+        }
+
+        @Override
+        public void setParameters(Object[] params) {
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Object proceed() throws Exception {
+            return null;
+        }
+
+    }
+
+    @Recorded
+    static class Worker {
+
+        void await(CountDownLatch latch) {
+            latch.countDown();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void work(int value) {
+            if (value < 0) {
+                throw new IllegalStateException();
+            }
+        }
+
+    }
+
+    @Target({ TYPE, METHOD })
+    @Retention(RUNTIME)
+    @InterceptorBinding
+    static @interface Recorded {
+
+        @SuppressWarnings("serial")
+        static final class Literal extends AnnotationLiteral<Recorded> implements Recorded {
+
+            public static final Literal INSTANCE = new Literal();
+
+        };
+
+    }
+
+}
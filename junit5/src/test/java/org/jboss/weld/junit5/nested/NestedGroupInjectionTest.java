@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.nested;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Tests that the instances of a {@code @Nested} hierarchy are injected once per container and released together.
+ */
+@ExtendWith(WeldJunit5Extension.class)
+public class NestedGroupInjectionTest {
+
+    static final AtomicInteger CREATED = new AtomicInteger();
+
+    static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    @WeldSetup
+    WeldInitiator weld = WeldInitiator.of(Tracked.class);
+
+    @Inject
+    Tracked outer;
+
+    @BeforeAll
+    static void reset() {
+        CREATED.set(0);
+        DESTROYED.set(0);
+    }
+
+    @AfterAll
+    static void verifyReleased() {
+        // The dependent objects of all the test instances were destroyed
+        Assertions.assertEquals(CREATED.get(), DESTROYED.get());
+    }
+
+    @Nested
+    class Inner {
+
+        @Inject
+        Tracked inner;
+
+        @Test
+        void testOuterAndInnerInjectedOnce() {
+            Assertions.assertNotNull(outer);
+            Assertions.assertNotNull(inner);
+            Assertions.assertNotSame(outer, inner);
+            // One dependent instance for the outer and one for the inner test instance
+            Assertions.assertEquals(2, CREATED.get() - DESTROYED.get());
+        }
+
+    }
+
+    @Dependent
+    static class Tracked {
+
+        @PostConstruct
+        void init() {
+            CREATED.incrementAndGet();
+        }
+
+        @PreDestroy
+        void destroy() {
+            DESTROYED.incrementAndGet();
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.nested;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldJunit5Extension;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Tests that the test instances of previous test methods are not injected again if the initiator is shared.
+ */
+@ExtendWith(WeldJunit5Extension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SharedInitiatorTestInstancesTest {
+
+    static final AtomicInteger CREATED = new AtomicInteger();
+
+    @WeldSetup
+    static WeldInitiator weld = WeldInitiator.of(Counted.class);
+
+    @Inject
+    Counted counted;
+
+    @Test
+    @Order(1)
+    void testFirst() {
+        Assertions.assertNotNull(counted);
+        Assertions.assertEquals(1, CREATED.get());
+    }
+
+    @Test
+    @Order(2)
+    void testSecond() {
+        Assertions.assertNotNull(counted);
+        // only the current test instance is injected
+        Assertions.assertEquals(2, CREATED.get());
+    }
+
+    @Dependent
+    static class Counted {
+
+        @PostConstruct
+        void init() {
+            CREATED.incrementAndGet();
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.junit5.profiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.weld.junit.BeanProfilingExtension;
+import org.jboss.weld.junit.BeanProfilingExtension.BeanProfile;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@EnableWeld
+public class BeanProfilingExtensionTest {
+
+    static final BeanProfilingExtension PROFILING = BeanProfilingExtension.forTypes(SlowService.class, ClockFactory.class, FinalService.class);
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator
+            .from(WeldInitiator.createWeld().addExtension(PROFILING).addBeanClasses(SlowService.class, ClockFactory.class, FinalService.class))
+            .build();
+
+    @BeforeEach
+    public void reset() {
+        PROFILING.reset();
+    }
+
+    @Test
+    public void testBeanProfiled() {
+        SlowService service = weld.select(SlowService.class).get();
+        assertTrue(service.work() > 0);
+        service.work();
+
+        BeanProfile profile = PROFILING.getProfile(SlowService.class);
+        assertNotNull(profile);
+        assertEquals(1, profile.getCreation().getCount());
+        assertEquals(1, profile.getInjection().getCount());
+        assertEquals(1, profile.getPostConstruct().getCount());
+        assertTrue(profile.getPostConstruct().getMin(TimeUnit.MILLISECONDS) >= 10);
+        assertEquals(2, profile.getMethods().getHistogram(SlowService.class, "work").getCount());
+        assertTrue(profile.getMethods().getHistogram(SlowService.class, "work").getMin(TimeUnit.MILLISECONDS) >= 5);
+        // The @PostConstruct callback is not a business method invocation
+        assertNull(profile.getMethods().getHistogram(SlowService.class, "init"));
+
+        List<BeanProfile> profiles = PROFILING.getProfiles();
+        assertEquals(SlowService.class.getName(), profiles.get(0).getName());
+        assertTrue(PROFILING.getReport().startsWith(SlowService.class.getName()));
+    }
+
+    @Test
+    public void testProducerProfiled() {
+        weld.select(SlowService.class).get().work();
+        BeanProfile producer = PROFILING.getProfiles().stream().filter(p -> p.getName().equals(ClockFactory.class.getName() + "#produceClock"))
+                .findFirst().orElse(null);
+        assertNotNull(producer);
+        assertEquals(1, producer.getCreation().getCount());
+        assertEquals(0, producer.getInjection().getCount());
+    }
+
+    @Test
+    public void testProfileOfUnusedBean() {
+        // The profile exists even if no instance was created
+        BeanProfile profile = PROFILING.getProfile(SlowService.class);
+        assertNotNull(profile);
+        assertEquals(0, profile.getCreation().getCount());
+        assertEquals(0, profile.getTotal(TimeUnit.NANOSECONDS));
+        // Not selected
+        assertNull(PROFILING.getProfile(Clock.class));
+    }
+
+    @Test
+    public void testFinalClassNotIntercepted() {
+        assertEquals("pong", weld.select(FinalService.class).get().ping());
+        BeanProfile profile = PROFILING.getProfile(FinalService.class);
+        assertEquals(1, profile.getCreation().getCount());
+        assertTrue(profile.getMethods().getHistograms().isEmpty());
+    }
+
+}